@@ -0,0 +1,67 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.medindev.shoppingcard.ShoppingcardApplication;
+import com.medindev.shoppingcard.dto.ImportSummary;
+import com.medindev.shoppingcard.service.bulk.IProductImportService;
+import com.medindev.shoppingcard.service.bulk.ImportFormat;
+import com.medindev.shoppingcard.support.CatalogCsv;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Boots the application against a private in-memory H2 database and seeds a deterministic catalog
+ * through the bulk import path (see {@link CatalogCsv} for its shape).
+ */
+final class CatalogFixture implements AutoCloseable {
+
+    static final int BRANDS = 50;
+    static final int CATEGORIES = 20;
+
+    final ConfigurableApplicationContext context;
+    final long minProductId;
+    final long maxProductId;
+
+    private CatalogFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Long min = jdbc.queryForObject("select min(id) from product", Long.class);
+        Long max = jdbc.queryForObject("select max(id) from product", Long.class);
+        this.minProductId = min == null ? 0 : min;
+        this.maxProductId = max == null ? 0 : max;
+    }
+
+    /** Starts the application; {@code properties} ({@code key=value}) override the benchmark defaults. */
+    static CatalogFixture start(int catalogSize, String... properties) throws IOException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShoppingcardApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "storage.local.root=target/benchmark-blobs",
+                        "logging.level.root=WARN")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+        if (catalogSize > 0) {
+            ImportSummary summary = context.getBean(IProductImportService.class)
+                    .importProducts(new CatalogCsv(catalogSize, BRANDS, CATEGORIES), ImportFormat.CSV);
+            if (summary.getImported() != catalogSize) {
+                context.close();
+                throw new IllegalStateException("Seeded " + summary.getImported() + " of " + catalogSize + " products");
+            }
+        }
+        return new CatalogFixture(context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,104 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.service.image.IImageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Image upload through {@link IImageService#saveImages} and download through the
+ * {@code ImageController} endpoint (dispatched with MockMvc, so the servlet layer is included but
+ * the network is not).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImageBenchmark {
+
+    @Param({"10000"})
+    int catalogSize;
+
+    /** Edge length of the square PNG that is uploaded and downloaded. */
+    @Param({"256", "1024"})
+    int imageSize;
+
+    /** {@code false} makes every upload unique content; {@code true} re-uploads one blob and measures the dedup path. */
+    @Param({"false", "true"})
+    boolean duplicate;
+
+    private CatalogFixture fixture;
+    private IImageService imageService;
+    private MockMvc mockMvc;
+    private byte[] png;
+    private String downloadUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.start(catalogSize);
+        imageService = fixture.bean(IImageService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) fixture.context).build();
+        png = randomPng(imageSize);
+        List<ImageUploadResult> seeded = imageService.saveImages(
+                List.of(new MockMultipartFile("files", "seed.png", "image/png", png)), fixture.minProductId);
+        downloadUrl = seeded.get(0).getImage().getDownloadUrl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<ImageUploadResult> saveImages() {
+        byte[] content = png;
+        if (!duplicate) {
+            // Bytes after the PNG end chunk are ignored by decoders but change the content hash.
+            content = Arrays.copyOf(png, png.length + Long.BYTES);
+            long nonce = ThreadLocalRandom.current().nextLong();
+            for (int i = 0; i < Long.BYTES; i++) {
+                content[png.length + i] = (byte) (nonce >>> (i * 8));
+            }
+        }
+        MultipartFile file = new MockMultipartFile("files", "upload.png", "image/png", content);
+        return imageService.saveImages(List.of(file), fixture.minProductId);
+    }
+
+    @Benchmark
+    public int downloadImage() throws Exception {
+        MvcResult result = mockMvc.perform(get(downloadUrl)).andReturn();
+        return result.getResponse().getContentAsByteArray().length;
+    }
+
+    private static byte[] randomPng(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.medindev.shoppingcard.service.pricing.FixedPoint;
+import com.medindev.shoppingcard.service.pricing.PriceTotals;
+import com.medindev.shoppingcard.service.pricing.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart totals with a per-line discount and tax, in {@code BigDecimal} versus the fixed-point
+ * {@link PricingEngine}. Run with {@code -prof gc} (the profile default) to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final RoundingMode MODE = RoundingMode.HALF_EVEN;
+
+    @Param({"5", "50"})
+    int lines;
+
+    private BigDecimal[] decimalPrices;
+    private long[] unitPrices;
+    private int[] quantities;
+    private long[] lineNets;
+    private final BigDecimal discountRate = new BigDecimal("0.15");
+    private final BigDecimal taxRate = new BigDecimal("0.2");
+    private final PricingEngine engine = new PricingEngine(MODE);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalPrices = new BigDecimal[lines];
+        unitPrices = new long[lines];
+        quantities = new int[lines];
+        lineNets = new long[lines];
+        for (int i = 0; i < lines; i++) {
+            unitPrices[i] = 100 + random.nextInt(100_000);
+            decimalPrices[i] = BigDecimal.valueOf(unitPrices[i], 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal line = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            subtotal = subtotal.add(line);
+            discount = discount.add(line.multiply(discountRate).setScale(2, MODE));
+        }
+        BigDecimal net = subtotal.subtract(discount);
+        return net.add(net.multiply(taxRate).setScale(2, MODE));
+    }
+
+    @Benchmark
+    public long fixedPoint() {
+        PriceTotals totals = engine.price(unitPrices, quantities, lines, 150_000, 200_000, lineNets);
+        return totals.total();
+    }
+
+    /** Includes the conversions a request pays at the API boundary. */
+    @Benchmark
+    public BigDecimal fixedPointWithConversion() {
+        for (int i = 0; i < lines; i++) {
+            unitPrices[i] = FixedPoint.toFixed(decimalPrices[i], 2, MODE);
+        }
+        PriceTotals totals = engine.price(unitPrices, quantities, lines,
+                FixedPoint.toRate(discountRate), FixedPoint.toRate(taxRate), null);
+        return FixedPoint.toDecimal(totals.total(), 2);
+    }
+}
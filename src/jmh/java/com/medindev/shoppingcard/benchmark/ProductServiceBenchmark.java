@@ -0,0 +1,102 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.medindev.shoppingcard.dto.CursorPage;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.request.AddProductRequest;
+import com.medindev.shoppingcard.service.product.IProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product reads and writes through {@link IProductService}, against a seeded H2 catalog.
+ * Choose catalog sizes with {@code -p catalogSize=10000,100000,1000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductServiceBenchmark {
+
+    @Param({"10000"})
+    int catalogSize;
+
+    private CatalogFixture fixture;
+    private IProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.start(catalogSize);
+        productService = fixture.bean(IProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Product getProductById() {
+        return productService.getProductById(randomId());
+    }
+
+    /** The cached DTO read used by the detail endpoint. */
+    @Benchmark
+    public ProductDto getProductDtoById() {
+        return productService.getProductDtoById(randomId());
+    }
+
+    /** First page of the keyset-paginated filter used by the endpoint. */
+    @Benchmark
+    public CursorPage<ProductDto> getProductsByCategoryAndBrandPage() {
+        int i = ThreadLocalRandom.current().nextInt(CatalogFixture.BRANDS * CatalogFixture.CATEGORIES);
+        return productService.getProductsByCategoryAndBrand(
+                "category-" + (i % CatalogFixture.CATEGORIES), "brand-" + (i % CatalogFixture.BRANDS), null, 20);
+    }
+
+    /** Walks the whole catalog page by page, as a client listing everything would; slow at a million products. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int walkAllProductPages() {
+        int read = 0;
+        String cursor = null;
+        do {
+            CursorPage<ProductDto> page = productService.getProducts(cursor, 100);
+            read += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return read;
+    }
+
+    @Benchmark
+    public CursorPage<ProductDto> getProductsPage() {
+        return productService.getProducts(null, 50);
+    }
+
+    /** Inserts grow the catalog slightly over the run. */
+    @Benchmark
+    public Product addProduct() {
+        int i = ThreadLocalRandom.current().nextInt(1_000_000);
+        AddProductRequest request = new AddProductRequest();
+        request.setName("Benchmark product " + i);
+        request.setBrand("brand-" + (i % CatalogFixture.BRANDS));
+        request.setPrice(BigDecimal.valueOf(i % 500 + 1));
+        request.setInventory(10);
+        request.setDescription("Added by ProductServiceBenchmark");
+        Category category = new Category();
+        category.setName("category-" + (i % CatalogFixture.CATEGORIES));
+        request.setCategory(category);
+        return productService.addProduct(request);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(fixture.minProductId, fixture.maxProductId + 1);
+    }
+}
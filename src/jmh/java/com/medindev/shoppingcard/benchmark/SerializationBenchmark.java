@@ -0,0 +1,70 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medindev.shoppingcard.dto.ImageDto;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.response.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of {@link ApiResponse} wrapping product lists, as the list endpoints
+ * return them. Uses an {@code ObjectMapper} configured like Spring Boot's default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    int products;
+
+    /** Whether each product carries two image references, as the detail endpoint returns. */
+    @Param({"false", "true"})
+    boolean withImages;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        List<ProductDto> page = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            List<ImageDto> images = withImages
+                    ? List.of(image((long) i * 2, "front.png"), image((long) i * 2 + 1, "back.png"))
+                    : null;
+            page.add(new ProductDto((long) i, "Product " + i, "brand-" + i % 50, BigDecimal.valueOf(1999 + i, 2),
+                    i % 1000, "Seeded product number " + i, "category-" + i % 20, images));
+        }
+        response = new ApiResponse("Success", page);
+    }
+
+    private static ImageDto image(long id, String name) {
+        ImageDto image = new ImageDto();
+        image.setImageId(id);
+        image.setImageName(name);
+        image.setDownloadUrl("/api/v1/images/image/download/" + id);
+        image.setThumbnailUrl("/api/v1/images/image/download/" + id + "?size=thumbnail");
+        image.setWebUrl("/api/v1/images/image/download/" + id + "?size=web");
+        return image;
+    }
+
+    @Benchmark
+    public byte[] serializeBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public String serializeString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+}
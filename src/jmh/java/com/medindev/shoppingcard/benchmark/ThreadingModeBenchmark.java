@@ -0,0 +1,105 @@
+package com.medindev.shoppingcard.benchmark;
+
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.service.image.IImageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform versus virtual request threads ({@code spring.threads.virtual.enabled}) under the same
+ * burst of concurrent HTTP requests: each operation sends {@code concurrency} detail and image
+ * download requests at once over real sockets and waits for all of them. Bursts larger than
+ * Tomcat's 200 platform threads show the queueing the virtual mode avoids; the database stays
+ * bounded by the pool and {@code datasource.limit} in both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ThreadingModeBenchmark {
+
+    private static final int IMAGES = 20;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"64", "512"})
+    int concurrency;
+
+    @Param({"10000"})
+    int catalogSize;
+
+    private CatalogFixture fixture;
+    private HttpClient client;
+    private String apiBase;
+    private final List<Long> imageIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = CatalogFixture.start(catalogSize, "spring.threads.virtual.enabled=" + virtualThreads);
+        int port = ((WebServerApplicationContext) fixture.context).getWebServer().getPort();
+        apiBase = "http://localhost:" + port + fixture.context.getEnvironment().getProperty("api.prefix");
+        IImageService imageService = fixture.bean(IImageService.class);
+        for (int i = 0; i < IMAGES; i++) {
+            List<ImageUploadResult> saved = imageService.saveImages(
+                    List.of(new MockMultipartFile("files", "seed.png", "image/png", png(i))), fixture.minProductId + i);
+            imageIds.add(saved.get(0).getImage().getImageId());
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String path = i % 4 == 0
+                    ? "/images/image/download/" + imageIds.get(random.nextInt(imageIds.size()))
+                    : "/products/product/" + random.nextLong(fixture.minProductId, fixture.maxProductId + 1) + "/product";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiBase + path)).GET().build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        int bytes = 0;
+        for (CompletableFuture<HttpResponse<byte[]>> response : responses) {
+            bytes += response.join().body().length;
+        }
+        return bytes;
+    }
+
+    private static byte[] png(int seed) throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < 256; y++) {
+            for (int x = 0; x < 256; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
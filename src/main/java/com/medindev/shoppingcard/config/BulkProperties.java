@@ -0,0 +1,11 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.bulk")
+public class BulkProperties {
+    /** Products per transaction; caches and indexes are refreshed once per committed chunk. */
+    private int chunkSize = 1_000;
+}
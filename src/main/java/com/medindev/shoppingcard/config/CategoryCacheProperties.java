@@ -0,0 +1,10 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "category.cache")
+public class CategoryCacheProperties {
+    private long maximumSize = 10_000;
+}
@@ -0,0 +1,47 @@
+package com.medindev.shoppingcard.config;
+
+import com.medindev.shoppingcard.jdbc.ConcurrencyLimitingDataSource;
+import com.medindev.shoppingcard.jdbc.ReplicaRouter;
+import com.medindev.shoppingcard.jdbc.RequestStatementTracker;
+import com.medindev.shoppingcard.jdbc.SlowQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Static so the post-processor is registered before the DataSource is created.
+    // Resulting chain: statement listeners -> [replica routing ->] concurrency gate -> connection pool,
+    // where routing sends read-only connections to a replica's own gate and pool.
+    @Bean
+    public static BeanPostProcessor dataSourceWrappingPostProcessor(ObjectProvider<DataSourceLimitProperties> limitProperties,
+                                                                    ObjectProvider<SlowQueryListener> slowQueryListener,
+                                                                    ObjectProvider<RequestStatementTracker> statementTracker,
+                                                                    ObjectProvider<ReplicaRouter> replicaRouter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+                DataSource target = ConcurrencyLimitingDataSource.limit(dataSource, limitProperties.getObject());
+                ReplicaRouter router = replicaRouter.getIfAvailable();
+                if (router != null) {
+                    target = router.route(target);
+                }
+                return ProxyDataSourceBuilder.create(target)
+                        .name(beanName)
+                        .listener(slowQueryListener.getObject())
+                        .listener(statementTracker.getObject())
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.limit")
+public class DataSourceLimitProperties {
+    private boolean enabled = true;
+    /** Connections that may be held at once; 0 means the connection pool's maximum size. */
+    private int maxConcurrent = 0;
+    /** Callers allowed to queue for a connection; beyond this, requests fail immediately instead of piling up. */
+    private int maxWaiting = 1000;
+    private Duration acquireTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,27 @@
+package com.medindev.shoppingcard.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Hashes and writes the parts of a multi-file upload to the blob store concurrently.
+    // With spring.threads.virtual.enabled each part gets its own virtual thread; the number of
+    // parts per request is already bounded by the multipart limits.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageUploadExecutor(ImageProcessingProperties properties, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-upload-", 1).factory());
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("image-upload-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(Math.max(1, properties.getUploadParallelism()), threadFactory);
+    }
+}
@@ -0,0 +1,16 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "product.facets")
+public class FacetProperties {
+    /** Upper bounds (exclusive) of the price buckets; prices at or above the last bound share one bucket. */
+    private List<BigDecimal> priceBounds = List.of(
+            BigDecimal.valueOf(10), BigDecimal.valueOf(25), BigDecimal.valueOf(50),
+            BigDecimal.valueOf(100), BigDecimal.valueOf(250));
+}
@@ -0,0 +1,17 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "image.processing")
+public class ImageProcessingProperties {
+    private boolean enabled = true;
+    private int workers = 2;
+    private int queueCapacity = 200;
+    private int thumbnailSize = 200;
+    private int webSize = 1280;
+    private float jpegQuality = 0.8f;
+    private long maxSourcePixels = 50_000_000L;
+    private int uploadParallelism = 4;
+}
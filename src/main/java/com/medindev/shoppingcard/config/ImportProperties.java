@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.import")
+public class ImportProperties {
+    /** Rows sent to the database per JDBC batch; the persistence context is flushed and cleared at this interval. */
+    private int batchSize = 500;
+    /** Rows per transaction. A failing chunk rolls back on its own; earlier chunks stay committed. */
+    private int commitInterval = 5_000;
+    /** Row errors listed in the summary; further errors are only counted. */
+    private int maxReportedErrors = 100;
+}
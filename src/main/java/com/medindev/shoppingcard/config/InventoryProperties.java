@@ -0,0 +1,32 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+    /** How long reserved stock is held when the caller does not ask for a specific TTL. */
+    private Duration reservationTtl = Duration.ofMinutes(15);
+    private Duration maxReservationTtl = Duration.ofHours(2);
+    private Duration sweepInterval = Duration.ofSeconds(30);
+    private HotSku hotSku = new HotSku();
+
+    @Data
+    public static class HotSku {
+        /** Products served from striped in-memory counters from startup. */
+        private List<Long> products = new ArrayList<>();
+        private int stripes = 16;
+        /**
+         * Units an instance takes from the row when its counters run short, and keeps when it returns
+         * surplus. Bounds what a crashed instance can strand.
+         */
+        private int leaseSize = 50;
+        /** How often leased units above one slice are returned to the database. */
+        private Duration flushInterval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.medindev.shoppingcard.config;
+
+import com.medindev.shoppingcard.jdbc.ConcurrencyLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+
+@Configuration
+public class MetricsConfig {
+
+    // Statement, entity, collection, query and second-level cache counters (needs hibernate.generate_statistics).
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory",
+                Collections.emptyList());
+    }
+
+    // Hikari publishes its own hikaricp.* gauges; these cover the gate in front of it.
+    @Bean
+    public MeterBinder dataSourceLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitingDataSource limit;
+            try {
+                if (!dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)) {
+                    return;
+                }
+                limit = dataSource.unwrap(ConcurrencyLimitingDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("jdbc.limit.active", limit, ConcurrencyLimitingDataSource::getActive)
+                    .description("Connections held through the concurrency gate").register(registry);
+            Gauge.builder("jdbc.limit.waiting", limit, ConcurrencyLimitingDataSource::getWaiting)
+                    .description("Callers queued at the concurrency gate").register(registry);
+            Gauge.builder("jdbc.limit.max", limit, ConcurrencyLimitingDataSource::getMaxConcurrent)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "api.pagination")
+public class PaginationProperties {
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+}
@@ -0,0 +1,18 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "diagnostics.pinning")
+public class PinningDiagnosticsProperties {
+    /** Records carrier-thread pinning with JFR while virtual threads are enabled. */
+    private boolean enabled = true;
+    /** Pins shorter than this are not recorded. */
+    private Duration threshold = Duration.ofMillis(20);
+    /** Distinct pinning stacks kept; further new stacks are only counted in the totals. */
+    private int maxSites = 100;
+    private int stackDepth = 12;
+}
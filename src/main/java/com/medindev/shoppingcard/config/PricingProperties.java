@@ -0,0 +1,19 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Data
+@ConfigurationProperties(prefix = "pricing")
+public class PricingProperties {
+    /** Minor-unit digits of the currency; prices are held internally as whole minor units. */
+    private int fractionDigits = 2;
+    private RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+    /** Tax applied to discounted totals, as a fraction (0.2 for 20%). */
+    private BigDecimal taxRate = BigDecimal.ZERO;
+    /** Most lines one quote request may price. */
+    private int maxQuoteLines = 100;
+}
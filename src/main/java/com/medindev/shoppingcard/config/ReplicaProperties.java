@@ -0,0 +1,39 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+    /** Routes read-only transactions to the replicas below; off means everything uses spring.datasource. */
+    private boolean enabled = false;
+    private List<Target> targets = new ArrayList<>();
+    /** Per replica pool; the primary keeps spring.datasource.hikari.*. */
+    private int maximumPoolSize = 10;
+    /** Kept short so a replica that stops answering falls back to the primary quickly. */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+    /** Optional query returning the replica's delay in seconds, e.g. from the replication status; none skips the check. */
+    private String lagQuery;
+    /** A replica further behind than this stops taking reads until it catches up; after a catalog write, cache refills and ETag-tagged catalog reads use the primary this long. */
+    private Duration maxLag = Duration.ofSeconds(5);
+    /** After a client's write, its reads stay on the primary this long, so it sees its own changes. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private String readYourWritesCookie = "rw-primary";
+
+    @Data
+    public static class Target {
+        /** Pool name, also the "pool" and "target" tag of the metrics; defaults to replica-&lt;index&gt;. */
+        private String name;
+        private String url;
+        /** Default to spring.datasource.username/password. */
+        private String username;
+        private String password;
+    }
+}
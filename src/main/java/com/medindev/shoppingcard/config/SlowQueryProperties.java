@@ -0,0 +1,16 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "jdbc.slow-query")
+public class SlowQueryProperties {
+    /** Statements (or batches) taking at least this long are counted as slow and may be logged. */
+    private Duration threshold = Duration.ofMillis(500);
+    /** Fraction of slow statements that are logged; all of them are counted. */
+    private double sampleRate = 1.0;
+    private int maxSqlLength = 2000;
+}
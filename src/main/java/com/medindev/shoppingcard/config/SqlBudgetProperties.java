@@ -0,0 +1,39 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "jdbc.budget")
+public class SqlBudgetProperties {
+    private boolean enabled = true;
+    /** Adds X-SQL-* headers with the request's statement count, time and worst repeat. Meant for dev and tests. */
+    private boolean responseHeaders = false;
+    /** Applies to requests no endpoint rule matches, and fills limits an endpoint rule leaves unset. */
+    private Limits defaults = new Limits();
+    /** Checked in order; the first rule whose method and path pattern match the request wins. */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /** A limit of 0 disables that check. */
+    @Data
+    public static class Limits {
+        private Integer maxStatements;
+        /** Executions of the same SQL text within one request; N+1 lazy loading shows up here first. */
+        private Integer maxRepeated;
+        private Duration maxTime;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Endpoint extends Limits {
+        /** Ant-style pattern matched against the request path, e.g. {@code /api/v1/products/**}. */
+        private String pattern;
+        /** HTTP method, or none to match any. */
+        private String method;
+    }
+}
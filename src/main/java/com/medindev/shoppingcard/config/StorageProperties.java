@@ -0,0 +1,16 @@
+package com.medindev.shoppingcard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+    private String backend = "local";
+    private Local local = new Local();
+
+    @Data
+    public static class Local {
+        private String root = "data/blobs";
+    }
+}
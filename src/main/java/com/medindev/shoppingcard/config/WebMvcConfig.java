@@ -0,0 +1,30 @@
+package com.medindev.shoppingcard.config;
+
+import com.medindev.shoppingcard.controller.CatalogEtagInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final CatalogEtagInterceptor catalogEtagInterceptor;
+    private final String apiPrefix;
+
+    public WebMvcConfig(CatalogEtagInterceptor catalogEtagInterceptor, @Value("${api.prefix}") String apiPrefix) {
+        this.catalogEtagInterceptor = catalogEtagInterceptor;
+        this.apiPrefix = apiPrefix;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Cache statistics change on every read, so they are not part of the catalog version. Search and
+        // facets answer from in-memory indexes that catch up with other instances' writes only after a
+        // rebuild, so a tag taken before it finishes would pin the stale answer.
+        registry.addInterceptor(catalogEtagInterceptor)
+                .addPathPatterns(apiPrefix + "/products/**", apiPrefix + "/category/**")
+                .excludePathPatterns(apiPrefix + "/products/cache/stats", apiPrefix + "/products/search/**",
+                        apiPrefix + "/products/facets");
+    }
+}
@@ -0,0 +1,60 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.jdbc.CatalogReadScope;
+import com.medindev.shoppingcard.service.product.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Conditional GET for catalog reads. The ETag is the {@link CatalogVersion} generation, known before
+ * the handler runs, so a client whose copy is current gets a 304 without any query or serialization.
+ * <p>
+ * Tags are weak: one generation covers every catalog response, which is exactly "semantically
+ * unchanged", and a strong tag would stop the server from gzipping the response. The Accept header
+ * is folded in because JSON, Smile and CBOR renderings of a generation are different bodies.
+ * <p>
+ * A handler that runs does so in the {@link CatalogReadScope.Kind#TAGGED tagged} read scope: what it
+ * returns carries the current tag, so its reads must not come from a replica behind the last write.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEtagInterceptor implements AsyncHandlerInterceptor {
+
+    private final CatalogVersion catalogVersion;
+    private final CatalogReadScope catalogReadScope;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String etag = "W/\"" + catalogVersion.tag()
+                + (accept != null ? "-" + Integer.toHexString(accept.hashCode()) : "") + "\"";
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        catalogReadScope.beginTagged();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        catalogReadScope.end();
+    }
+
+    // A streaming export hands the response to another thread; this one goes back to the pool.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        catalogReadScope.end();
+    }
+}
@@ -1,5 +1,6 @@
 package com.medindev.shoppingcard.controller;
 
+import com.medindev.shoppingcard.dto.CategoryDto;
 import com.medindev.shoppingcard.exception.AlreadyExistsException;
 import com.medindev.shoppingcard.exception.ResourceNotFoundException;
 import com.medindev.shoppingcard.model.Category;
@@ -32,7 +33,7 @@ public class CategoryController {
     @GetMapping("/all")
     public ResponseEntity<ApiResponse> getAllCategories() {
         try {
-            List<Category> categories = categoryService.getAllCategories();
+            List<CategoryDto> categories = categoryService.getAllCategories();
             return ResponseEntity.ok(new ApiResponse("Categories retrieved successfully", categories));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Error: " + e.getMessage(), null));
@@ -53,7 +54,7 @@ public class CategoryController {
     public ResponseEntity<ApiResponse> addCategory(Category category) {
         try {
             Category savedCategory = categoryService.addCategory(category);
-            return ResponseEntity.ok(new ApiResponse("Category added successfully", savedCategory));
+            return ResponseEntity.ok(new ApiResponse("Category added successfully", CategoryDto.from(savedCategory)));
         } catch (AlreadyExistsException e) {
             return ResponseEntity.status(CONFLICT).body(new ApiResponse("Error: " + e.getMessage(), null));
         }
@@ -74,7 +75,7 @@ public class CategoryController {
     public ResponseEntity<ApiResponse> getCategoryById(@PathVariable Long id) {
         try {
             Category category = categoryService.getCategoryById(id);
-            return ResponseEntity.ok(new ApiResponse("Category retrieved successfully", category));
+            return ResponseEntity.ok(new ApiResponse("Category retrieved successfully", CategoryDto.from(category)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Error: " + e.getMessage(), null));
         }
@@ -90,11 +91,11 @@ public class CategoryController {
      * @since 1.0.0
      **/
 
-    @GetMapping("category/{name}/category")
+    @GetMapping("/category/by-name/{name}/category")
     public ResponseEntity<ApiResponse> getCategoryByName(@PathVariable String name) {
         try {
             Category category = categoryService.getCategoryByName(name);
-            return ResponseEntity.ok(new ApiResponse("Category retrieved successfully", category));
+            return ResponseEntity.ok(new ApiResponse("Category retrieved successfully", CategoryDto.from(category)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Error: " + e.getMessage(), null));
         }
@@ -133,7 +134,7 @@ public class CategoryController {
     public ResponseEntity<ApiResponse> updateCategory(@PathVariable Long id, @RequestBody Category category) {
         try {
             Category updatedCategory = categoryService.updateCategory(category, id);
-            return ResponseEntity.ok(new ApiResponse("Category updated successfully", updatedCategory));
+            return ResponseEntity.ok(new ApiResponse("Category updated successfully", CategoryDto.from(updatedCategory)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Error: " + e.getMessage(), null));
         }
@@ -0,0 +1,41 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.response.ApiResponse;
+import com.medindev.shoppingcard.service.diagnostics.IPinningDiagnosticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/diagnostics")  // Base URL for runtime diagnostics
+public class DiagnosticsController {
+
+    private final IPinningDiagnosticsService pinningDiagnosticsService;
+
+    /**
+     * Reports where virtual threads pinned their carrier threads, grouped by stack and ordered by
+     * total pinned time. Empty unless the application runs on virtual threads.
+     *
+     * @return ResponseEntity containing the pinning report.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/pinning")
+    public ResponseEntity<ApiResponse> getPinningReport() {
+        return ResponseEntity.ok(new ApiResponse("Virtual thread pinning", pinningDiagnosticsService.getReport()));
+    }
+
+    /**
+     * Clears the recorded pinning events, e.g. before a load test.
+     *
+     * @return ResponseEntity confirming the reset.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @DeleteMapping("/pinning")
+    public ResponseEntity<ApiResponse> resetPinningReport() {
+        pinningDiagnosticsService.reset();
+        return ResponseEntity.ok(new ApiResponse("Pinning report cleared", null));
+    }
+}
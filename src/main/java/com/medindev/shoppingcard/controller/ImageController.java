@@ -1,23 +1,33 @@
 package com.medindev.shoppingcard.controller;
 
-import com.medindev.shoppingcard.dto.ImageDto;
+import com.medindev.shoppingcard.dto.DedupStats;
+import com.medindev.shoppingcard.dto.ImageUploadResult;
 import com.medindev.shoppingcard.exception.ResourceNotFoundException;
 import com.medindev.shoppingcard.model.Image;
+import com.medindev.shoppingcard.model.ImageVariant;
 import com.medindev.shoppingcard.response.ApiResponse;
 import com.medindev.shoppingcard.service.image.IImageService;
+import com.medindev.shoppingcard.service.image.ImageContent;
+import com.medindev.shoppingcard.service.image.ImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.sql.SQLException;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.MULTI_STATUS;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RequiredArgsConstructor
@@ -25,6 +35,15 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @RequestMapping("${api.prefix}/images")  // Base URL for all image-related endpoints
 public class ImageController {
 
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     private final IImageService imageService;
 
 
@@ -33,7 +52,7 @@ public class ImageController {
      *
      * @param files     The list of image files to be saved.
      * @param productId The ID of the product to which the images belong.
-     * @return ResponseEntity containing the saved image DTOs or an error message.
+     * @return ResponseEntity containing the outcome of every file, with 207 when only some were saved.
      * @throws Exception If an error occurs during image saving.
      * @author Medindev
      * @since 1.0.0
@@ -41,8 +60,15 @@ public class ImageController {
     @PostMapping("/upload")
     public ResponseEntity<ApiResponse> saveImage(@RequestParam List<MultipartFile> files, @RequestParam Long productId) {
         try {
-            List<ImageDto> imageDtos = imageService.saveImages(files, productId);
-            return ResponseEntity.ok(new ApiResponse("Images saved successfully", imageDtos));
+            List<ImageUploadResult> results = imageService.saveImages(files, productId);
+            long saved = results.stream().filter(ImageUploadResult::isSuccess).count();
+            if (saved == results.size()) {
+                return ResponseEntity.ok(new ApiResponse("Images saved successfully", results));
+            }
+            if (saved == 0) {
+                return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Error saving images", results));
+            }
+            return ResponseEntity.status(MULTI_STATUS).body(new ApiResponse("Some images could not be saved", results));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse("Error saving images", e.getMessage()));
@@ -51,23 +77,71 @@ public class ImageController {
 
     /**
      * Downloads an image by its ID.
+     * <p>
+     * Supports {@code Range} requests (206), conditional requests on the content hash and
+     * modification time (304), and streams the file without buffering it in memory. When the
+     * {@code v} parameter matches the current content hash the response is cacheable forever.
      *
      * @param imageId The ID of the image to be downloaded.
+     * @param version The content version embedded in the download URL, if any.
+     * @param size    The variant to serve: {@code original} (default), {@code thumbnail} or {@code web};
+     *                any other value is answered with 400.
      * @return ResponseEntity containing the image resource or an error message.
-     * @throws SQLException If an error occurs while accessing the image data.
+     * @throws IOException If the stored file cannot be read.
      * @author Medindev
      * @since 1.0.0
      **/
-    @PostMapping("image/download/{imageId}")
-    public ResponseEntity<Resource> downloadImage (@PathVariable Long imageId) throws SQLException {
+    @GetMapping("image/download/{imageId}")
+    public ResponseEntity<Resource> downloadImage (@PathVariable Long imageId,
+                                                   @RequestParam(name = "v", required = false) String version,
+                                                   @RequestParam(required = false) String size,
+                                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant variant;
+        try {
+            variant = ImageVariant.fromParameter(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         Image image = imageService.getImageById(imageId);
-        ByteArrayResource resource = new ByteArrayResource(image.getImage().getBytes(1, (int) image.getImage().length()));
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getFileType()))
+        ImageContent content = imageService.getImageContent(image, variant);
+        Resource resource = content.getResource();
+        String eTag = "\"" + content.getStorageKey() + "\"";
+        long lastModified = resource.lastModified();
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.parseMediaType(content.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFileName() + "\"")
-                .body(resource);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(!content.isFallback() && isCurrentVersion(image, version) ? IMMUTABLE : REVALIDATE);
+        if (useSendfile(request, resource)) {
+            // Tomcat copies the file to the socket itself (sendfile), so nothing passes through the heap.
+            request.setAttribute(SENDFILE_FILENAME_ATTR, resource.getFile().getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, resource.contentLength());
+            return builder.contentLength(resource.contentLength()).build();
+        }
+        return builder.body(resource);
 
     }
 
+    private static boolean isCurrentVersion(Image image, String version) {
+        return version != null && version.length() >= ImageService.VERSION_LENGTH
+                && image.getStorageKey().startsWith(version);
+    }
+
+    // Range requests and small files go through Spring's streaming resource converters instead.
+    private static boolean useSendfile(HttpServletRequest request, Resource resource) throws IOException {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && HttpMethod.GET.matches(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && resource.isFile()
+                && resource.contentLength() >= SENDFILE_MIN_SIZE;
+    }
+
     /**
      * Updates an existing image by its ID.
      *
@@ -81,7 +155,7 @@ public class ImageController {
     public ResponseEntity<ApiResponse> updateImage(@PathVariable Long imageId, @RequestBody MultipartFile file) {
         try {
             Image image = imageService.getImageById(imageId);
-            if(image == null){
+            if(image != null){
                 imageService.updateImage(file, imageId);
                 return ResponseEntity.ok(new ApiResponse("Updated successfully", null));
             }
@@ -104,7 +178,7 @@ public class ImageController {
     public ResponseEntity<ApiResponse> deleteImage(@PathVariable Long imageId) {
         try {
             Image image = imageService.getImageById(imageId);
-            if(image == null){
+            if(image != null){
                 imageService.deleteImageById(imageId);
                 return ResponseEntity.ok(new ApiResponse("deleted successfully", null));
             }
@@ -114,5 +188,22 @@ public class ImageController {
         return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Error deleting image", INTERNAL_SERVER_ERROR));
     }
 
+    /**
+     * Reports how much storage content-hash deduplication saves.
+     *
+     * @return ResponseEntity containing the unique blob count, logical and physical bytes and the dedup ratio.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/admin/dedup-stats")
+    public ResponseEntity<ApiResponse> getDedupStats() {
+        try {
+            DedupStats stats = imageService.getDedupStats();
+            return ResponseEntity.ok(new ApiResponse("Deduplication statistics", stats));
+        } catch (Exception e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
 
 }
@@ -0,0 +1,138 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.dto.ReservationDto;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ReservationStateException;
+import com.medindev.shoppingcard.exception.ResourceNotFoundException;
+import com.medindev.shoppingcard.request.ReserveInventoryRequest;
+import com.medindev.shoppingcard.response.ApiResponse;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/inventory")  // Base URL for all inventory-related endpoints
+public class InventoryController {
+
+    private final IInventoryService inventoryService;
+
+    /**
+     * Reserves stock for a checkout. The units are taken immediately and returned if the
+     * reservation is released or not committed before it expires.
+     *
+     * @param request The product, quantity and optional hold duration in seconds.
+     * @return ResponseEntity containing the reservation, or 409 if there is not enough stock.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping("/reservations")
+    public ResponseEntity<ApiResponse> reserve(@RequestBody ReserveInventoryRequest request) {
+        try {
+            Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null;
+            ReservationDto reservation = inventoryService.reserve(request.getProductId(), request.getQuantity(), ttl);
+            return ResponseEntity.ok(new ApiResponse("Stock reserved", reservation));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Commits a reservation, making the sale of its units final.
+     *
+     * @param reservationId The ID of the reservation.
+     * @return ResponseEntity containing the committed reservation, or 409 if it is no longer held.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<ApiResponse> commit(@PathVariable String reservationId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Reservation committed", inventoryService.commit(reservationId)));
+        } catch (ReservationStateException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Releases a reservation and returns its units to stock.
+     *
+     * @param reservationId The ID of the reservation.
+     * @return ResponseEntity containing the released reservation, or 409 if it is no longer held.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<ApiResponse> release(@PathVariable String reservationId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Reservation released", inventoryService.release(reservationId)));
+        } catch (ReservationStateException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Retrieves the stock currently available for reservation.
+     *
+     * @param productId The ID of the product.
+     * @return ResponseEntity containing the available quantity.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ApiResponse> getAvailable(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Available stock", inventoryService.getAvailable(productId)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Serves this instance's reservations of a product from in-memory counters for flash sales, fed
+     * by slices of stock leased from the database.
+     *
+     * @param productId The ID of the product.
+     * @return ResponseEntity confirming the switch.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PutMapping("/hot-skus/{productId}")
+    public ResponseEntity<ApiResponse> enableHotSku(@PathVariable Long productId) {
+        try {
+            inventoryService.enableHotSku(productId);
+            return ResponseEntity.ok(new ApiResponse("Hot SKU mode enabled", null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Returns this instance's leased stock and moves the product back to database-backed reservations.
+     *
+     * @param productId The ID of the product.
+     * @return ResponseEntity confirming the switch.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @DeleteMapping("/hot-skus/{productId}")
+    public ResponseEntity<ApiResponse> disableHotSku(@PathVariable Long productId) {
+        inventoryService.disableHotSku(productId);
+        return ResponseEntity.ok(new ApiResponse("Hot SKU mode disabled", null));
+    }
+}
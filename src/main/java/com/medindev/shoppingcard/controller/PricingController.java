@@ -0,0 +1,44 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.dto.PriceQuoteDto;
+import com.medindev.shoppingcard.exception.ResourceNotFoundException;
+import com.medindev.shoppingcard.request.PriceQuoteRequest;
+import com.medindev.shoppingcard.response.ApiResponse;
+import com.medindev.shoppingcard.service.pricing.IPricingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/pricing")  // Base URL for all pricing-related endpoints
+public class PricingController {
+
+    private final IPricingService pricingService;
+
+    /**
+     * Prices order lines at the products' current prices: subtotal, an optional discount applied to
+     * each line, and tax on the discounted amount.
+     *
+     * @param request The lines (product and quantity) and the optional discount rate.
+     * @return ResponseEntity containing the subtotal, discount, tax and total.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping("/quote")
+    public ResponseEntity<ApiResponse> quote(@RequestBody PriceQuoteRequest request) {
+        try {
+            PriceQuoteDto quote = pricingService.quote(request.getLines(), request.getDiscountRate());
+            return ResponseEntity.ok(new ApiResponse("Success", quote));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        } catch (ArithmeticException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse("Quote total out of range", null));
+        }
+    }
+}
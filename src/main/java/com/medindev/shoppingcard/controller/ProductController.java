@@ -1,19 +1,43 @@
 package com.medindev.shoppingcard.controller;
 
 
+import com.medindev.shoppingcard.dto.BulkResult;
+import com.medindev.shoppingcard.dto.CursorPage;
+import com.medindev.shoppingcard.dto.FacetCounts;
+import com.medindev.shoppingcard.dto.ImportSummary;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.dto.SearchHit;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.InvalidCursorException;
 import com.medindev.shoppingcard.exception.ResourceNotFoundException;
+import com.medindev.shoppingcard.exception.StockMismatchException;
 import com.medindev.shoppingcard.model.Product;
 import com.medindev.shoppingcard.request.AddProductRequest;
+import com.medindev.shoppingcard.request.BulkProductDeleteRequest;
+import com.medindev.shoppingcard.request.BulkProductUpdateRequest;
+import com.medindev.shoppingcard.request.ProductPatch;
 import com.medindev.shoppingcard.request.ProductUpdateRequest;
 import com.medindev.shoppingcard.response.ApiResponse;
+import com.medindev.shoppingcard.service.bulk.IProductBulkService;
+import com.medindev.shoppingcard.service.bulk.IProductImportService;
+import com.medindev.shoppingcard.service.bulk.ImportFormat;
+import com.medindev.shoppingcard.service.export.IProductExportService;
 import com.medindev.shoppingcard.service.product.IProductService;
+import com.medindev.shoppingcard.service.search.IProductFacetService;
+import com.medindev.shoppingcard.service.search.IProductSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.MULTI_STATUS;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RequiredArgsConstructor
@@ -22,25 +46,181 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 public class ProductController {
 
     private final IProductService productService;
+    private final IProductExportService productExportService;
+    private final IProductImportService productImportService;
+    private final IProductBulkService productBulkService;
+    private final IProductSearchService productSearchService;
+    private final IProductFacetService productFacetService;
 
     /**
-     * Retrieves all products.
+     * Retrieves a page of products, ordered by id.
      *
-     * @return ResponseEntity containing the list of products or an error message.
+     * @param cursor The cursor returned with the previous page, or none for the first page.
+     * @param size   The requested page size, capped at the configured maximum.
+     * @return ResponseEntity containing the page of products and the next cursor, or an error message.
      * @throws Exception If an error occurs while retrieving products.
      * @author Medindev
      * @since 1.0.0
      **/
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllProducts() {
+    public ResponseEntity<ApiResponse> getAllProducts(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getAllProducts();
+            CursorPage<ProductDto> products = productService.getProducts(cursor, size);
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
+    /**
+     * Streams the catalog as newline-delimited JSON, one product per line.
+     *
+     * @param category Optional category name; only products in this category are exported.
+     * @param brand    Optional brand; only products of this brand are exported.
+     * @return ResponseEntity streaming the products as they are read from the database.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String category,
+                                                                @RequestParam(required = false) String brand) {
+        StreamingResponseBody body = out -> productExportService.exportProducts(category, brand, out);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Imports products from a CSV (with a header row) or NDJSON request body, streamed as it arrives.
+     * Columns: name, brand, price, inventory, description, category.
+     *
+     * @param contentType {@code text/csv} or {@code application/x-ndjson}.
+     * @param body        The upload.
+     * @return ResponseEntity containing the import summary with row-level errors: 200 when every row
+     * was imported, 207 when some failed, 400 when none could be imported.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                      InputStream body) {
+        try {
+            ImportSummary summary = productImportService.importProducts(body, ImportFormat.fromContentType(contentType));
+            if (summary.getFailed() == 0) {
+                return ResponseEntity.ok(new ApiResponse("Products imported successfully", summary));
+            }
+            if (summary.getImported() == 0) {
+                return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse("No products could be imported", summary));
+            }
+            return ResponseEntity.status(MULTI_STATUS).body(new ApiResponse("Some products could not be imported", summary));
+        } catch (Exception e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Applies partial price, stock and description updates to many products at once.
+     * Fields left null in an item keep their current value; stock changes by the item's inventoryDelta,
+     * or is set to its inventory, only if it still is the item's expectedInventory when that is given.
+     *
+     * @param request The updates, one item per product id.
+     * @return ResponseEntity containing the number of products requested and actually updated: 200 when
+     * every item was applied, 207 with the refused ids when a product was missing or a stock change was
+     * refused (nothing of that item applies).
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PatchMapping("/bulk")
+    public ResponseEntity<ApiResponse> bulkUpdateProducts(@RequestBody BulkProductUpdateRequest request) {
+        try {
+            List<ProductPatch> items = request.getItems() != null ? request.getItems() : List.of();
+            BulkResult result = productBulkService.updateProducts(items);
+            if (!result.getRefused().isEmpty()) {
+                return ResponseEntity.status(MULTI_STATUS).body(new ApiResponse("Some products could not be updated", result));
+            }
+            return ResponseEntity.ok(new ApiResponse("Products updated successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Deletes products by id list, or by brand and/or category when no ids are given, together
+     * with their images.
+     *
+     * @param request The ids, or the brand/category filter.
+     * @return ResponseEntity containing the number of products requested and actually deleted.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ApiResponse> bulkDeleteProducts(@RequestBody BulkProductDeleteRequest request) {
+        try {
+            BulkResult result = request.getIds() != null && !request.getIds().isEmpty()
+                    ? productBulkService.deleteProducts(request.getIds())
+                    : productBulkService.deleteProductsByFilter(request.getCategory(), request.getBrand());
+            return ResponseEntity.ok(new ApiResponse("Products deleted successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Searches product name, brand, category and description, ranked by relevance.
+     * The last word of the query also matches as a prefix, so partial input finds results.
+     *
+     * @param q     The free-text query.
+     * @param limit The maximum number of hits to return.
+     * @return ResponseEntity containing the ranked hits.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        List<SearchHit> hits = productSearchService.search(q, limit);
+        return ResponseEntity.ok(new ApiResponse("Search completed", hits));
+    }
+
+    /**
+     * Suggests completions for the last word of the given input, most common terms first.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions to return.
+     * @return ResponseEntity containing the suggestions.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/search/suggest")
+    public ResponseEntity<ApiResponse> suggestProducts(@RequestParam String prefix,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        List<String> suggestions = productSearchService.suggest(prefix, limit);
+        return ResponseEntity.ok(new ApiResponse("Suggestions retrieved", suggestions));
+    }
+
+    /**
+     * Counts products per category, brand and price range for the given filters in one call.
+     *
+     * @param category   Optional category filter.
+     * @param brand      Optional brand filter.
+     * @param priceRange Optional price range filter, using a label returned by this endpoint.
+     * @return ResponseEntity containing the matching total and the count for every facet value.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse> getProductFacets(@RequestParam(required = false) String category,
+                                                        @RequestParam(required = false) String brand,
+                                                        @RequestParam(required = false) String priceRange) {
+        FacetCounts facets = productFacetService.getFacets(category, brand, priceRange);
+        return ResponseEntity.ok(new ApiResponse("Facets retrieved successfully", facets));
+    }
+
     /**
      * Retrieves a product by its ID.
      *
@@ -53,7 +233,7 @@ public class ProductController {
     @GetMapping("/product/{productId}/product")
     public ResponseEntity<ApiResponse> getProductById( @PathVariable Long productId) {
         try {
-            Product product = productService.getProductById(productId);
+            ProductDto product = productService.getProductDtoById(productId);
             return ResponseEntity.ok(new ApiResponse("Product retrieved successfully", product));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
@@ -61,11 +241,23 @@ public class ProductController {
 
     }
 
+    /**
+     * Reports hit, miss and eviction statistics of the product detail cache.
+     *
+     * @return ResponseEntity containing the cache statistics.
+     * @author Medindev
+     * @since 1.0.0
+     **/
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getProductCacheStats() {
+        return ResponseEntity.ok(new ApiResponse("Product cache statistics", productService.getProductCacheStats()));
+    }
+
     @PostMapping("/add")
     public ResponseEntity<ApiResponse> addProduct(@RequestBody AddProductRequest product) {
         try {
             Product savedProduct = productService.addProduct(product);
-            return ResponseEntity.ok(new ApiResponse("Product added successfully", savedProduct));
+            return ResponseEntity.ok(new ApiResponse("Product added successfully", ProductDto.from(savedProduct)));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
@@ -75,9 +267,13 @@ public class ProductController {
     public ResponseEntity<ApiResponse> updateProduct(@RequestBody ProductUpdateRequest request, @PathVariable Long productId) {
         try {
             Product updatedProduct = productService.updateProduct(request, productId);
-            return ResponseEntity.ok(new ApiResponse("Product updated successfully", updatedProduct));
+            return ResponseEntity.ok(new ApiResponse("Product updated successfully", ProductDto.from(updatedProduct)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (InsufficientStockException | StockMismatchException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -92,13 +288,17 @@ public class ProductController {
     }
 
     @GetMapping("products/by/brand-and-name")
-    public ResponseEntity<ApiResponse> getProductsByBrandAndName(@RequestParam String brandName, @RequestParam String productName) {
+    public ResponseEntity<ApiResponse> getProductsByBrandAndName(@RequestParam String brandName, @RequestParam String productName,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getProductsByBrandAndName(brandName, productName);
+            CursorPage<ProductDto> products = productService.getProductsByBrandAndName(brandName, productName, cursor, size);
             if (products.isEmpty()) {
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given brand and name", null));
             }
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
@@ -106,52 +306,68 @@ public class ProductController {
     }
 
     @GetMapping("/products/by/category-and-brand")
-    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@RequestParam String category, @RequestParam String brand) {
+    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@RequestParam String category, @RequestParam String brand,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getProductsByCategoryAndBrand(category, brand);
+            CursorPage<ProductDto> products = productService.getProductsByCategoryAndBrand(category, brand, cursor, size);
             if (products.isEmpty()) {
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given brand", null));
             }
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/products/{name}/products")
-    public ResponseEntity<ApiResponse> getProductByName(@PathVariable String name) {
+    public ResponseEntity<ApiResponse> getProductByName(@PathVariable String name,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getProductsByName(name);
+            CursorPage<ProductDto> products = productService.getProductsByName(name, cursor, size);
             if (products.isEmpty()) {
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given category", null));
             }
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.ok(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/products/by-brand")
-    public ResponseEntity<ApiResponse> getProductsByBrand(@RequestParam String brand) {
+    public ResponseEntity<ApiResponse> getProductsByBrand(@RequestParam String brand,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getProductsByCategory(brand);
+            CursorPage<ProductDto> products = productService.getProductsByBrand(brand, cursor, size);
             if (products.isEmpty()) {
-                return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given category", null));
+                return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given brand", null));
             }
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.ok(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/products/{category}/all/products")
-    public ResponseEntity<ApiResponse> findProductByCategory(@PathVariable String category) {
+    public ResponseEntity<ApiResponse> findProductByCategory(@PathVariable String category,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.getProductsByCategory(category);
+            CursorPage<ProductDto> products = productService.getProductsByCategory(category, cursor, size);
             if (products.isEmpty()) {
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("No products found for the given category", null));
             }
             return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.ok(new ApiResponse(e.getMessage(), null));
         }
@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class BulkResult {
+    long requested;
+    long affected;
+    /** Ids of items not applied in full: no such product, or a refused stock change. */
+    List<Long> refused;
+    int chunks;
+    long elapsedMillis;
+}
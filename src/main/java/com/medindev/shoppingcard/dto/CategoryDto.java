@@ -0,0 +1,18 @@
+package com.medindev.shoppingcard.dto;
+
+import com.medindev.shoppingcard.model.Category;
+import lombok.Value;
+
+/**
+ * Category as returned by the API. Leaves out the product collection, which would otherwise be
+ * lazily loaded and serialized back through every product's category.
+ */
+@Value
+public class CategoryDto {
+    Long id;
+    String name;
+
+    public static CategoryDto from(Category category) {
+        return new CategoryDto(category.getId(), category.getName());
+    }
+}
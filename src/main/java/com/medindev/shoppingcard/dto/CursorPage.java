@@ -0,0 +1,18 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private int size;
+    private String nextCursor;
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DedupStats {
+    private long uniqueBlobs;
+    private long references;
+    private long physicalBytes;
+    private long logicalBytes;
+    private long bytesSaved;
+    private double dedupRatio;
+}
@@ -0,0 +1,17 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Product counts for one combination of filters. Each facet is counted against the other active
+ * filters only, so a sidebar can show how many products every alternative value would yield.
+ */
+@Value
+public class FacetCounts {
+    long total;
+    Map<String, Integer> categories;
+    Map<String, Integer> brands;
+    Map<String, Integer> priceRanges;
+}
@@ -7,4 +7,6 @@ public class ImageDto {
     private  Long imageId;
     private  String imageName;
     private  String downloadUrl;
+    private  String thumbnailUrl;
+    private  String webUrl;
 }
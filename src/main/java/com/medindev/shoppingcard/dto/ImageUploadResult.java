@@ -0,0 +1,21 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImageUploadResult {
+    private String fileName;
+    private boolean success;
+    private String error;
+    private ImageDto image;
+
+    public static ImageUploadResult saved(String fileName, ImageDto image) {
+        return new ImageUploadResult(fileName, true, null, image);
+    }
+
+    public static ImageUploadResult failed(String fileName, String error) {
+        return new ImageUploadResult(fileName, false, error, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+@Value
+public class ImportError {
+    long line;
+    String message;
+}
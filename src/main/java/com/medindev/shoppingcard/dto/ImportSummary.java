@@ -0,0 +1,16 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ImportSummary {
+    long rowsRead;
+    long imported;
+    long failed;
+    List<ImportError> errors;
+    boolean errorsTruncated;
+    long elapsedMillis;
+    double rowsPerSecond;
+}
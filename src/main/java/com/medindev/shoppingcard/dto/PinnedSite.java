@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PinnedSite {
+    private List<String> stack;
+    private long count;
+    private double totalMillis;
+    private double maxMillis;
+}
@@ -0,0 +1,16 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PinningReport {
+    private boolean virtualThreads;
+    private boolean recording;
+    private long events;
+    private double totalMillis;
+    private List<PinnedSite> sites;
+}
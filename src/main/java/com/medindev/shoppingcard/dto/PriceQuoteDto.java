@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class PriceQuoteDto {
+    BigDecimal subtotal;
+    BigDecimal discount;
+    BigDecimal tax;
+    BigDecimal total;
+}
@@ -0,0 +1,49 @@
+package com.medindev.shoppingcard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.medindev.shoppingcard.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Immutable view of a product. Safe to share between threads and to keep in caches, unlike the entity.
+ */
+@Value
+@AllArgsConstructor
+public class ProductDto {
+    Long id;
+    String name;
+    String brand;
+    BigDecimal price;
+    int inventory;
+    String description;
+    String category;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<ImageDto> images;
+
+    /** Summary without images; the shape selected by the listing queries in {@code ProductRepository}. */
+    public ProductDto(Long id, String name, String brand, BigDecimal price, int inventory, String description,
+                      String category) {
+        this(id, name, brand, price, inventory, description, category, null);
+    }
+
+    public static ProductDto from(Product product) {
+        return from(product, null);
+    }
+
+    public static ProductDto from(Product product, List<ImageDto> images) {
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getBrand(),
+                product.getPrice(),
+                product.getInventory(),
+                product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                images != null ? List.copyOf(images) : null
+        );
+    }
+}
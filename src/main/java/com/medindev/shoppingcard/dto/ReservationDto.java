@@ -0,0 +1,21 @@
+package com.medindev.shoppingcard.dto;
+
+import com.medindev.shoppingcard.model.InventoryReservation;
+import com.medindev.shoppingcard.model.ReservationStatus;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class ReservationDto {
+    String id;
+    Long productId;
+    int quantity;
+    ReservationStatus status;
+    Instant expiresAt;
+
+    public static ReservationDto from(InventoryReservation reservation) {
+        return new ReservationDto(reservation.getId(), reservation.getProductId(), reservation.getQuantity(),
+                reservation.getStatus(), reservation.getExpiresAt());
+    }
+}
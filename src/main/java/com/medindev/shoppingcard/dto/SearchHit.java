@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class SearchHit {
+    Long id;
+    String name;
+    String brand;
+    String category;
+    BigDecimal price;
+    double score;
+}
@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.event;
+
+import lombok.Value;
+
+/**
+ * Published when the shared catalog generation has moved past writes this instance made itself, so
+ * another instance changed the catalog. Which products changed is unknown; per-instance derived
+ * state has to treat all of it as stale.
+ */
+@Value
+public class CatalogChangedElsewhereEvent {
+    long generation;
+}
@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.event;
+
+import lombok.Value;
+
+/**
+ * Published when this instance writes to the catalog, or learns that another instance did, before
+ * caches drop what the write made stale and before the catalog generation moves. Reads that refill
+ * them must not come from a replica that has not applied the write yet. A stock-only write does not
+ * move the generation at once, so it only concerns the refills.
+ */
+@Value
+public class CatalogWrittenEvent {
+    long epochMillis;
+    boolean stockOnly;
+}
@@ -0,0 +1,24 @@
+package com.medindev.shoppingcard.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published whenever products, or data embedded in their views such as images, are written.
+ * Listeners that keep derived state (caches, indexes) react to it after the transaction commits.
+ */
+@Value
+public class ProductsChangedEvent {
+    Set<Long> productIds;
+
+    public ProductsChangedEvent(Collection<Long> productIds) {
+        this.productIds = Set.copyOf(productIds);
+    }
+
+    public static ProductsChangedEvent of(Long productId) {
+        return new ProductsChangedEvent(List.of(productId));
+    }
+}
@@ -0,0 +1,7 @@
+package com.medindev.shoppingcard.exception;
+
+public class BlobUnavailableException extends RuntimeException {
+    public BlobUnavailableException(String message) {
+        super(message);
+    }
+}
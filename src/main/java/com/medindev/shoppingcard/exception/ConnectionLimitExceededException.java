@@ -0,0 +1,14 @@
+package com.medindev.shoppingcard.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/** A connection gate turned the caller away; the database behind it was not asked and may be fine. */
+public class ConnectionLimitExceededException extends SQLTransientConnectionException {
+    public ConnectionLimitExceededException(String message) {
+        super(message);
+    }
+
+    public ConnectionLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,6 @@
 package com.medindev.shoppingcard.exception;
 
-public class ProductNotFoundException extends  RuntimeException {
+public class ProductNotFoundException extends ResourceNotFoundException {
     public  ProductNotFoundException(String message) {
         super(message);
     }
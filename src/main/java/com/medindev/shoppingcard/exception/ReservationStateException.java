@@ -0,0 +1,8 @@
+package com.medindev.shoppingcard.exception;
+
+/** The reservation exists but has already been committed, released or expired. */
+public class ReservationStateException extends RuntimeException {
+    public ReservationStateException(String message) {
+        super(message);
+    }
+}
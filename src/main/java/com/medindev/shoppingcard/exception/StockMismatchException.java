@@ -0,0 +1,8 @@
+package com.medindev.shoppingcard.exception;
+
+/** An absolute stock update expected a different current stock than the product has. */
+public class StockMismatchException extends RuntimeException {
+    public StockMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.medindev.shoppingcard.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the reads on the current thread whose results are kept or labelled as the current catalog:
+ * a product-cache refill stores what it reads, and a handler behind the catalog ETag tags what it
+ * returns with the current generation. With replicas enabled, only these reads are held on the
+ * primary after a catalog write (see {@link ReadYourWrites}); every other read-only transaction keeps
+ * using the replicas.
+ */
+@Component
+public class CatalogReadScope {
+
+    public enum Kind {
+        /** Served under the catalog ETag; stale after a write that moves the generation. */
+        TAGGED,
+        /** Refills a cached view; stale after any write to it, stock included. */
+        REFILL
+    }
+
+    private final ThreadLocal<Kind> current = new ThreadLocal<>();
+
+    public Kind current() {
+        return current.get();
+    }
+
+    /** Runs a cache load as a refill, restoring the enclosing scope afterwards. */
+    public <T> T refill(Supplier<T> load) {
+        Kind enclosing = current.get();
+        current.set(Kind.REFILL);
+        try {
+            return load.get();
+        } finally {
+            if (enclosing != null) {
+                current.set(enclosing);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    public void beginTagged() {
+        current.set(Kind.TAGGED);
+    }
+
+    public void end() {
+        current.remove();
+    }
+}
@@ -0,0 +1,279 @@
+package com.medindev.shoppingcard.jdbc;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.internal.ToOneAttributeMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.sqm.ComparisonOperator;
+import org.hibernate.query.sqm.tree.SqmDeleteOrUpdateStatement;
+import org.hibernate.query.sqm.tree.SqmStatement;
+import org.hibernate.query.sqm.tree.domain.SqmPath;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
+import org.hibernate.query.sqm.tree.from.SqmFrom;
+import org.hibernate.query.sqm.tree.from.SqmRoot;
+import org.hibernate.query.sqm.tree.predicate.SqmComparisonPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmGroupedPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmInListPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmJunctionPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmWhereClause;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warns at startup about repository finders whose predicate no index can serve: derived ones
+ * ({@code findByBrandAndName} and the like) and JPQL {@code @Query} methods alike. A finder counts as
+ * supported when, for every OR branch, some index on the queried table leads with one of the branch's
+ * columns, and every association it navigates (a {@code category.name} path, say) is also indexed on
+ * the far side. In a JPQL branch the equality and {@code in} comparisons pick the index when there are
+ * any, so a keyset {@code p.id > :afterId} next to them does not count as support; other predicates
+ * are ignored. Native queries are not parsed; their plans are covered by tests.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "schema.index-check", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FinderIndexChecker {
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warnAboutUnindexedFinders() {
+        try {
+            findUnindexedFinders().forEach(problem -> log.warn("Unindexed repository finder: {}", problem));
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not check repository finders against the schema's indexes", e);
+        }
+    }
+
+    /** Describes each finder lacking a supporting index; empty when all are covered. */
+    public List<String> findUnindexedFinders() throws SQLException {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> problems = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            IndexLookup indexes = new IndexLookup(connection);
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                for (Method method : information.getQueryMethods()) {
+                    String finder = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                    Query query = method.getAnnotation(Query.class);
+                    if (query != null) {
+                        if (!query.nativeQuery() && !query.value().isBlank()) {
+                            checkJpql(sessionFactory, query.value(), indexes, finder, problems);
+                        }
+                        continue;
+                    }
+                    PartTree tree;
+                    try {
+                        tree = new PartTree(method.getName(), domainType);
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    EntityPersister root = sessionFactory.getMappingMetamodel().getEntityDescriptor(domainType);
+                    for (PartTree.OrPart branch : tree) {
+                        Set<String> rootColumns = new LinkedHashSet<>();
+                        for (Part part : branch) {
+                            checkPath(root, part.getProperty(), rootColumns, indexes, finder, problems);
+                        }
+                        String table = tableName(root);
+                        if (!rootColumns.isEmpty() && rootColumns.stream().noneMatch(c -> indexes.leads(table, c))) {
+                            problems.add(finder + ": no index on " + table + " leads with any of " + rootColumns);
+                        }
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    private void checkJpql(SessionFactoryImplementor sessionFactory, String jpql, IndexLookup indexes, String finder,
+                           List<String> problems) {
+        SqmStatement<?> statement;
+        try {
+            statement = sessionFactory.getQueryEngine().getHqlTranslator().translate(jpql, null);
+        } catch (RuntimeException e) {
+            return;
+        }
+        SqmWhereClause where = statement instanceof SqmSelectStatement<?> select
+                ? select.getQuerySpec().getWhereClause()
+                : statement instanceof SqmDeleteOrUpdateStatement<?> dml ? dml.getWhereClause() : null;
+        if (where == null || where.getPredicate() == null) {
+            return;
+        }
+        for (List<Filter> branch : branches(where.getPredicate())) {
+            boolean anyEquality = branch.stream().anyMatch(Filter::equality);
+            Map<EntityPersister, Set<String>> rootColumns = new LinkedHashMap<>();
+            for (Filter filter : branch) {
+                if (filter.equality() || !anyEquality) {
+                    EntityPersister root = sessionFactory.getMappingMetamodel()
+                            .getEntityDescriptor(filter.root().getEntityName());
+                    checkPath(root, PropertyPath.from(filter.path(), root.getMappedClass()),
+                            rootColumns.computeIfAbsent(root, r -> new LinkedHashSet<>()), indexes, finder, problems);
+                }
+            }
+            rootColumns.forEach((root, columns) -> {
+                String table = tableName(root);
+                if (!columns.isEmpty() && columns.stream().noneMatch(c -> indexes.leads(table, c))) {
+                    problems.add(finder + ": no index on " + table + " leads with any of " + columns);
+                }
+            });
+        }
+    }
+
+    // The predicate as OR branches of comparisons against entity paths; parameters and literals drop out.
+    private static List<List<Filter>> branches(SqmPredicate predicate) {
+        if (predicate instanceof SqmGroupedPredicate grouped) {
+            return branches(grouped.getSubPredicate());
+        }
+        if (predicate instanceof SqmJunctionPredicate junction) {
+            boolean or = junction.getOperator() == Predicate.BooleanOperator.OR;
+            List<List<Filter>> result = or ? new ArrayList<>() : List.of(List.of());
+            for (SqmPredicate child : junction.getPredicates()) {
+                List<List<Filter>> childBranches = branches(child);
+                if (or) {
+                    result.addAll(childBranches);
+                    continue;
+                }
+                List<List<Filter>> combined = new ArrayList<>();
+                for (List<Filter> left : result) {
+                    for (List<Filter> right : childBranches) {
+                        List<Filter> both = new ArrayList<>(left);
+                        both.addAll(right);
+                        combined.add(both);
+                    }
+                }
+                result = combined;
+            }
+            return result;
+        }
+        List<Filter> filters = new ArrayList<>();
+        if (predicate instanceof SqmComparisonPredicate comparison && !comparison.isNegated()) {
+            boolean equality = comparison.getSqmOperator() == ComparisonOperator.EQUAL;
+            addFilter(comparison.getLeftHandExpression(), equality, filters);
+            addFilter(comparison.getRightHandExpression(), equality, filters);
+        } else if (predicate instanceof SqmInListPredicate<?> in && !in.isNegated()) {
+            addFilter(in.getTestExpression(), true, filters);
+        }
+        return List.of(filters);
+    }
+
+    private static void addFilter(SqmExpression<?> expression, boolean equality, List<Filter> filters) {
+        if (!(expression instanceof SqmPath<?> path) || path instanceof SqmFrom<?, ?>) {
+            return;
+        }
+        List<String> segments = new ArrayList<>();
+        SqmPath<?> node = path;
+        while (!(node instanceof SqmRoot<?>)) {
+            if (node == null) {
+                return;
+            }
+            segments.add(0, node.getReferencedPathSource().getPathName());
+            node = node.getLhs();
+        }
+        filters.add(new Filter((SqmRoot<?>) node, String.join(".", segments), equality));
+    }
+
+    private record Filter(SqmRoot<?> root, String path, boolean equality) {
+    }
+
+    // Adds the root-table columns the path filters on; associations are followed and checked on their own table.
+    private void checkPath(EntityPersister owner, PropertyPath path, Set<String> ownerColumns, IndexLookup indexes,
+                           String finder, List<String> problems) {
+        String property = path.getSegment();
+        if (property.equals(owner.getIdentifierPropertyName())) {
+            ownerColumns.addAll(List.of(((AbstractEntityPersister) owner).getIdentifierColumnNames()));
+            return;
+        }
+        AttributeMapping attribute = owner.findAttributeMapping(property);
+        if (attribute == null) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        attribute.forEachSelectable((index, selectable) -> columns.add(selectable.getSelectionExpression()));
+        ownerColumns.addAll(columns);
+        if (attribute instanceof ToOneAttributeMapping association && path.hasNext()) {
+            EntityPersister target = association.getEntityMappingType().getEntityPersister();
+            Set<String> targetColumns = new LinkedHashSet<>();
+            checkPath(target, path.next(), targetColumns, indexes, finder, problems);
+            String table = tableName(target);
+            if (targetColumns.stream().noneMatch(c -> indexes.leads(table, c))) {
+                problems.add(finder + ": no index on " + table + " leads with any of " + targetColumns);
+            }
+        }
+    }
+
+    private static String tableName(EntityPersister persister) {
+        return ((AbstractEntityPersister) persister).getTableName();
+    }
+
+    /** Leading columns of every index, per table, read once per table from the JDBC metadata. */
+    private static final class IndexLookup {
+
+        private final DatabaseMetaData metaData;
+        private final String catalog;
+        private final String schema;
+        private final Map<String, Set<String>> leadingColumns = new HashMap<>();
+
+        IndexLookup(Connection connection) throws SQLException {
+            this.metaData = connection.getMetaData();
+            this.catalog = connection.getCatalog();
+            this.schema = connection.getSchema();
+        }
+
+        boolean leads(String table, String column) {
+            Set<String> columns = leadingColumns.computeIfAbsent(table.toLowerCase(Locale.ROOT), this::load);
+            return columns.contains(column.toLowerCase(Locale.ROOT));
+        }
+
+        private Set<String> load(String table) {
+            Set<String> columns = new HashSet<>();
+            try {
+                String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+                try (ResultSet rs = metaData.getIndexInfo(catalog, schema, name, false, true)) {
+                    while (rs.next()) {
+                        if (rs.getShort("ORDINAL_POSITION") == 1 && rs.getString("COLUMN_NAME") != null) {
+                            columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not read the indexes of table " + table, e);
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.medindev.shoppingcard.config.ReplicaProperties;
+import com.medindev.shoppingcard.event.CatalogWrittenEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the current thread's reads on the primary for a while after a write, since replicas apply
+ * changes with a delay. The thread pins itself whenever it takes a write connection, which covers
+ * after-commit listeners and scheduled jobs reading back what they just changed; the
+ * {@link ReadYourWritesFilter} carries the pin across a client's subsequent requests.
+ * <p>
+ * A catalog write also holds the reads in a {@link CatalogReadScope} on the primary for
+ * {@code max-lag}, whichever thread makes them: a product-cache refill or a read served under the new
+ * catalog ETag would otherwise store or tag a replica's older copy as current. Stock-only writes,
+ * which every reservation makes, hold only the refills, since they do not move the ETag at once.
+ * Other reads keep going to the replicas.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReadYourWrites {
+
+    private final ReplicaProperties properties;
+    private final CatalogReadScope catalogReadScope;
+    private final ThreadLocal<Long> pinnedUntil = new ThreadLocal<>();
+    private final AtomicLong catalogPinnedUntil = new AtomicLong();
+    private final AtomicLong stockPinnedUntil = new AtomicLong();
+
+    /** Pins the thread for the read-your-writes window and returns when that ends, in epoch millis. */
+    public long recordWrite() {
+        long until = System.currentTimeMillis() + properties.getReadYourWritesWindow().toMillis();
+        pinUntil(until);
+        return until;
+    }
+
+    public void pinUntil(long epochMillis) {
+        Long current = pinnedUntil.get();
+        if (current == null || current < epochMillis) {
+            pinnedUntil.set(epochMillis);
+        }
+    }
+
+    @EventListener
+    public void onCatalogWritten(CatalogWrittenEvent event) {
+        AtomicLong until = event.isStockOnly() ? stockPinnedUntil : catalogPinnedUntil;
+        until.accumulateAndGet(event.getEpochMillis() + properties.getMaxLag().toMillis(), Math::max);
+    }
+
+    /** True while the current thread's catalog reads, if it is making any, must stay on the primary. */
+    public boolean isCatalogPinnedToPrimary() {
+        CatalogReadScope.Kind kind = catalogReadScope.current();
+        return kind != null && isCatalogPinnedToPrimary(kind);
+    }
+
+    /** True while reads of the given kind must stay on the primary because the catalog changed recently. */
+    public boolean isCatalogPinnedToPrimary(CatalogReadScope.Kind kind) {
+        long until = catalogPinnedUntil.get();
+        if (kind == CatalogReadScope.Kind.REFILL) {
+            until = Math.max(until, stockPinnedUntil.get());
+        }
+        return until > System.currentTimeMillis();
+    }
+
+    public boolean isPinnedToPrimary() {
+        Long until = pinnedUntil.get();
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public void clear() {
+        pinnedUntil.remove();
+    }
+}
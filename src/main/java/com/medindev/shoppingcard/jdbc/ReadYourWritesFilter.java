@@ -0,0 +1,79 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.medindev.shoppingcard.config.ReplicaProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gives a client read-your-writes across requests. A request that may write (anything but GET, HEAD,
+ * OPTIONS or TRACE) returns a cookie holding the end of the read-your-writes window; the client's
+ * requests that carry an unexpired one read from the primary. The cookie is set before the handler
+ * runs because the response may already be committed by the time the write is known.
+ */
+@Component
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+    private final ReplicaProperties properties;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites, ReplicaProperties properties) {
+        this.readYourWrites = readYourWrites;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            Long pinnedUntil = pinnedUntil(request);
+            if (pinnedUntil != null) {
+                // The value comes from the client, so it can shorten the window but never extend it.
+                readYourWrites.pinUntil(Math.min(pinnedUntil,
+                        System.currentTimeMillis() + properties.getReadYourWritesWindow().toMillis()));
+            }
+            if (mayWrite(request)) {
+                long until = readYourWrites.recordWrite();
+                Cookie cookie = new Cookie(properties.getReadYourWritesCookie(), Long.toString(until));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, properties.getReadYourWritesWindow().toSeconds()));
+                response.addCookie(cookie);
+            }
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.clear();
+        }
+    }
+
+    private Long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(properties.getReadYourWritesCookie())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean mayWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method) && !HttpMethod.TRACE.matches(method);
+    }
+}
@@ -0,0 +1,254 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.medindev.shoppingcard.config.DataSourceLimitProperties;
+import com.medindev.shoppingcard.config.ReplicaProperties;
+import com.medindev.shoppingcard.exception.ConnectionLimitExceededException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a pool of read replicas and everything else to the primary
+ * ({@code datasource.replica.*}).
+ * <p>
+ * Routing relies on {@link LazyConnectionDataSourceProxy}: the physical connection is only taken at
+ * the first statement, by which time a {@code @Transactional(readOnly = true)} method has flagged it
+ * read-only. Such connections come from the next healthy replica in turn; a replica becomes healthy
+ * once a periodic check reaches it (and, with a lag query, finds it caught up) and drops out when a
+ * check or a connection attempt fails. A read turned away by a saturated replica's gate goes to the
+ * primary without taking the replica out. Reads fall back to the primary while no replica is healthy,
+ * while the thread is pinned by {@link ReadYourWrites}, and, for catalog reads that get cached or
+ * tagged (see {@link CatalogReadScope}), for {@code max-lag} after a catalog write. Every connection
+ * taken for writing pins the thread.
+ * <p>
+ * Each replica gets its own Hikari pool named after the target, so {@code hikaricp.*} meters are
+ * tagged per target alongside the primary's; {@code jdbc.routing.connections} counts the routing
+ * decisions and {@code jdbc.replica.healthy} shows the check results.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaRouter implements MeterBinder, DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaProperties properties;
+    private final ReadYourWrites readYourWrites;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile MeterRegistry registry;
+
+    public ReplicaRouter(ReplicaProperties properties, DataSourceProperties dataSourceProperties,
+                         DataSourceLimitProperties limitProperties, ReadYourWrites readYourWrites) {
+        this.properties = properties;
+        this.readYourWrites = readYourWrites;
+        if (properties.getTargets().isEmpty()) {
+            throw new IllegalStateException("datasource.replica.enabled is set but no datasource.replica.targets are configured");
+        }
+        for (int i = 0; i < properties.getTargets().size(); i++) {
+            ReplicaProperties.Target target = properties.getTargets().get(i);
+            String name = target.getName() != null ? target.getName() : "replica-" + i;
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(target.getUrl());
+            config.setUsername(target.getUsername() != null ? target.getUsername() : dataSourceProperties.getUsername());
+            config.setPassword(target.getPassword() != null ? target.getPassword() : dataSourceProperties.getPassword());
+            if (dataSourceProperties.getDriverClassName() != null) {
+                config.setDriverClassName(dataSourceProperties.getDriverClassName());
+            }
+            config.setMaximumPoolSize(properties.getMaximumPoolSize());
+            config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            config.setReadOnly(true);
+            // A replica that is down at startup must not stop the application; it just takes no reads.
+            config.setInitializationFailTimeout(-1);
+            HikariDataSource pool = new HikariDataSource(config);
+            replicas.add(new Replica(name, pool, ConcurrencyLimitingDataSource.limit(pool, limitProperties)));
+        }
+    }
+
+    /** Wraps the primary (already gated) into the routing data source. */
+    public DataSource route(DataSource primary) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(new WriteDataSource(primary));
+        routing.setReadOnlyDataSource(new ReadDataSource(primary));
+        return routing;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            if (replica.pool.getMetricsTrackerFactory() == null) {
+                replica.pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            Gauge.builder("jdbc.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica passes its health check and takes reads")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        this.registry = registry;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval:PT5S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem != null) {
+                markDown(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is healthy and takes reads", replica.name);
+            }
+        }
+    }
+
+    // Its pooled connections are likely dead too; evicting them lets the next check start afresh.
+    private void markDown(Replica replica, String problem) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} stops taking reads: {}", replica.name, problem);
+        }
+        replica.pool.getHikariPoolMXBean().softEvictConnections();
+    }
+
+    // Straight to the pool: a health check should not queue behind reads at the gate.
+    private String probe(Replica replica) {
+        int timeoutSeconds = (int) Math.max(1, properties.getHealthCheckTimeout().toSeconds());
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!connection.isValid(timeoutSeconds)) {
+                return "connection is not valid";
+            }
+            if (properties.getLagQuery() == null) {
+                return null;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+                    long lag = rs.next() ? rs.getLong(1) : -1;
+                    if (lag < 0 || rs.wasNull()) {
+                        return "replication lag is unknown";
+                    }
+                    return lag > properties.getMaxLag().toSeconds() ? "replication lag is " + lag + " s" : null;
+                }
+            }
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    private Replica nextHealthy() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void count(String target, String route) {
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            meters.counter("jdbc.routing.connections", "target", target, "route", route).increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        Replica(String name, HikariDataSource pool, DataSource dataSource) {
+            this.name = name;
+            this.pool = pool;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /** Connections not flagged read-only: writes, and reads outside a read-only transaction. */
+    private final class WriteDataSource extends DelegatingDataSource {
+
+        WriteDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            readYourWrites.recordWrite();
+            count(PRIMARY, "write");
+            return super.getConnection();
+        }
+    }
+
+    private final class ReadDataSource extends AbstractDataSource {
+
+        private final DataSource primary;
+
+        ReadDataSource(DataSource primary) {
+            this.primary = primary;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (readYourWrites.isPinnedToPrimary()) {
+                count(PRIMARY, "read-your-writes");
+                return primary.getConnection();
+            }
+            if (readYourWrites.isCatalogPinnedToPrimary()) {
+                count(PRIMARY, "recent-catalog-write");
+                return primary.getConnection();
+            }
+            Replica replica = nextHealthy();
+            if (replica == null) {
+                count(PRIMARY, "no-healthy-replica");
+                return primary.getConnection();
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                count(replica.name, "read");
+                return connection;
+            } catch (ConnectionLimitExceededException e) {
+                // Busy, not down: only this read moves to the primary.
+                count(PRIMARY, "replica-saturated");
+                return primary.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+                count(PRIMARY, "replica-failed");
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Read-only connections use the configured replica credentials");
+        }
+    }
+}
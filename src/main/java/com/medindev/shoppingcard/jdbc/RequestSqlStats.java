@@ -0,0 +1,44 @@
+package com.medindev.shoppingcard.jdbc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements executed on one request's thread: how many, how long, and which SQL text ran most often.
+ * Counts are by SQL text with bind parameters, so a query issued once per parent row adds up under one key.
+ */
+public class RequestSqlStats {
+
+    private final Map<String, Integer> executions = new HashMap<>();
+    private int statements;
+    private long elapsedMillis;
+    private int maxRepeated;
+    private String mostRepeatedSql;
+
+    synchronized void record(String sql, long elapsedMillis) {
+        statements++;
+        this.elapsedMillis += elapsedMillis;
+        int count = executions.merge(sql, 1, Integer::sum);
+        if (count > maxRepeated) {
+            maxRepeated = count;
+            mostRepeatedSql = sql;
+        }
+    }
+
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** Highest number of executions of a single SQL text. */
+    public synchronized int getMaxRepeated() {
+        return maxRepeated;
+    }
+
+    public synchronized String getMostRepeatedSql() {
+        return mostRepeatedSql;
+    }
+}
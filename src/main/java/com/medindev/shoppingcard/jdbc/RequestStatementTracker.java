@@ -0,0 +1,42 @@
+package com.medindev.shoppingcard.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Attributes statements to the request being served on the current thread. Work handed to other
+ * threads (async exports, parallel uploads, thumbnail workers) is not attributed to any request.
+ */
+@Component
+public class RequestStatementTracker implements QueryExecutionListener {
+
+    private final ThreadLocal<RequestSqlStats> current = new ThreadLocal<>();
+
+    public RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        current.set(stats);
+        return stats;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats stats = current.get();
+        if (stats == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        // A batch is one round trip, so it counts once under its (first) statement.
+        stats.record(queryInfoList.get(0).getQuery(), execInfo.getElapsedTime());
+    }
+}
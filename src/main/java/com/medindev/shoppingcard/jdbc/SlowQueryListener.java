@@ -0,0 +1,87 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.medindev.shoppingcard.config.SlowQueryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement and logs a sample of those slower than {@code jdbc.slow-query.threshold}.
+ * Replaces printing all SQL: only statements worth looking at reach the log, without parameters.
+ * Metrics are recorded once the meter registry has bound this listener.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener implements QueryExecutionListener, MeterBinder {
+
+    private static final String[] STATEMENT_TYPES = {"select", "insert", "update", "delete"};
+
+    private final SlowQueryProperties properties;
+    private volatile MeterRegistry registry;
+    private volatile Counter slowStatements;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.slowStatements = Counter.builder("jdbc.statements.slow")
+                .description("Statements slower than jdbc.slow-query.threshold")
+                .register(registry);
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            Timer.builder("jdbc.statements")
+                    .description("JDBC statement and batch execution time")
+                    .tag("type", statementType(sql))
+                    .tag("batch", String.valueOf(execInfo.isBatch()))
+                    .tag("outcome", execInfo.isSuccess() ? "success" : "error")
+                    .register(meters)
+                    .record(elapsedMillis, TimeUnit.MILLISECONDS);
+        }
+        if (elapsedMillis < properties.getThreshold().toMillis()) {
+            return;
+        }
+        if (slowStatements != null) {
+            slowStatements.increment();
+        }
+        if (ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            log.warn("Slow SQL ({} ms{}): {}", elapsedMillis,
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", truncate(sql));
+        }
+    }
+
+    private String truncate(String sql) {
+        return sql.length() <= properties.getMaxSqlLength() ? sql : sql.substring(0, properties.getMaxSqlLength()) + "...";
+    }
+
+    static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        for (String type : STATEMENT_TYPES) {
+            if (trimmed.regionMatches(true, 0, type, 0, type.length())) {
+                return type;
+            }
+        }
+        return trimmed.toLowerCase(Locale.ROOT).startsWith("with") ? "select" : "other";
+    }
+}
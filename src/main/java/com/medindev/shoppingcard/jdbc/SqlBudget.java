@@ -0,0 +1,34 @@
+package com.medindev.shoppingcard.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limits on the SQL a single request may run. A limit of 0 is not checked.
+ */
+public record SqlBudget(int maxStatements, int maxRepeated, Duration maxTime) {
+
+    private static final int MAX_SQL_IN_MESSAGE = 200;
+
+    public static final SqlBudget UNLIMITED = new SqlBudget(0, 0, Duration.ZERO);
+
+    /** Describes every limit the request went over; empty when it stayed within budget. */
+    public List<String> violations(RequestSqlStats stats) {
+        List<String> violations = new ArrayList<>(3);
+        if (maxStatements > 0 && stats.getStatements() > maxStatements) {
+            violations.add(stats.getStatements() + " statements (max " + maxStatements + ")");
+        }
+        if (maxRepeated > 0 && stats.getMaxRepeated() > maxRepeated) {
+            String sql = stats.getMostRepeatedSql();
+            if (sql.length() > MAX_SQL_IN_MESSAGE) {
+                sql = sql.substring(0, MAX_SQL_IN_MESSAGE) + "...";
+            }
+            violations.add("same statement run " + stats.getMaxRepeated() + " times (max " + maxRepeated + "): " + sql);
+        }
+        if (maxTime.isPositive() && stats.getElapsedMillis() > maxTime.toMillis()) {
+            violations.add(stats.getElapsedMillis() + " ms in JDBC (max " + maxTime.toMillis() + " ms)");
+        }
+        return violations;
+    }
+}
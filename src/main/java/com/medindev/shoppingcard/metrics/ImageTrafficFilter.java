@@ -0,0 +1,50 @@
+package com.medindev.shoppingcard.metrics;
+
+import com.medindev.shoppingcard.model.ImageVariant;
+import com.medindev.shoppingcard.service.image.ImageTrafficMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts bytes sent by image downloads. Reads the response's {@code Content-Length} after the
+ * download has been written, which covers range responses and sendfile transfers alike.
+ */
+@Component
+public class ImageTrafficFilter extends OncePerRequestFilter {
+
+    private final ImageTrafficMetrics metrics;
+    private final String downloadPath;
+
+    public ImageTrafficFilter(ImageTrafficMetrics metrics, @Value("${api.prefix}") String apiPrefix) {
+        this.metrics = metrics;
+        this.downloadPath = apiPrefix + "/images/image/download/";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + downloadPath);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        int status = response.getStatus();
+        String length = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if ((status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_PARTIAL_CONTENT) && length != null) {
+            try {
+                metrics.sent(Long.parseLong(length), ImageVariant.fromParameter(request.getParameter("size")));
+            } catch (IllegalArgumentException ignored) {
+                // Unknown size parameter or malformed length: the download itself already failed or was counted elsewhere.
+            }
+        }
+    }
+}
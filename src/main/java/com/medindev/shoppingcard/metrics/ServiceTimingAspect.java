@@ -0,0 +1,42 @@
+package com.medindev.shoppingcard.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every method of the product, category and image service interfaces as {@code service.calls},
+ * tagged with the interface, the method and the exception thrown (or {@code none}).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("execution(* com.medindev.shoppingcard.service.product.IProductService.*(..))"
+            + " || execution(* com.medindev.shoppingcard.service.category.ICategoryService.*(..))"
+            + " || execution(* com.medindev.shoppingcard.service.image.IImageService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("service.calls")
+                    .description("Service method execution time")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
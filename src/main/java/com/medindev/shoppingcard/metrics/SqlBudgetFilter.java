@@ -0,0 +1,167 @@
+package com.medindev.shoppingcard.metrics;
+
+import com.medindev.shoppingcard.config.SqlBudgetProperties;
+import com.medindev.shoppingcard.jdbc.RequestSqlStats;
+import com.medindev.shoppingcard.jdbc.RequestStatementTracker;
+import com.medindev.shoppingcard.jdbc.SqlBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Counts the SQL each request runs and checks it against the budget configured for its endpoint
+ * ({@code jdbc.budget.*}). Requests over budget are logged and counted in {@code jdbc.budget.violations};
+ * with {@code jdbc.budget.response-headers} the figures are also returned as {@code X-SQL-*} headers.
+ * Integration tests can read the {@link RequestSqlStats} from the {@link #STATS_ATTRIBUTE} request attribute.
+ */
+@Slf4j
+@Component
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATS_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".stats";
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String MAX_REPEATED_HEADER = "X-SQL-Max-Repeated";
+    public static final String BUDGET_HEADER = "X-SQL-Budget";
+
+    private final RequestStatementTracker tracker;
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public SqlBudgetFilter(RequestStatementTracker tracker, SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = tracker.begin();
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        SqlBudget budget = budgetFor(request);
+        BudgetHeaderResponse headerResponse = properties.isResponseHeaders()
+                ? new BudgetHeaderResponse(response, stats, budget) : null;
+        try {
+            chain.doFilter(request, headerResponse != null ? headerResponse : response);
+        } finally {
+            tracker.end();
+            if (headerResponse != null) {
+                headerResponse.writeHeaders();
+            }
+            List<String> violations = budget.violations(stats);
+            if (!violations.isEmpty()) {
+                meterRegistry.counter("jdbc.budget.violations").increment();
+                log.warn("SQL budget exceeded by {} {}: {}", request.getMethod(), request.getRequestURI(),
+                        String.join("; ", violations));
+            }
+        }
+    }
+
+    SqlBudget budgetFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        SqlBudgetProperties.Limits defaults = properties.getDefaults();
+        for (SqlBudgetProperties.Endpoint endpoint : properties.getEndpoints()) {
+            if ((endpoint.getMethod() == null || endpoint.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(endpoint.getPattern(), path)) {
+                return new SqlBudget(
+                        limit(endpoint.getMaxStatements(), defaults.getMaxStatements()),
+                        limit(endpoint.getMaxRepeated(), defaults.getMaxRepeated()),
+                        limit(endpoint.getMaxTime(), defaults.getMaxTime()));
+            }
+        }
+        return new SqlBudget(limit(defaults.getMaxStatements(), null), limit(defaults.getMaxRepeated(), null),
+                limit(defaults.getMaxTime(), null));
+    }
+
+    private static int limit(Integer value, Integer fallback) {
+        return value != null ? value : fallback != null ? fallback : 0;
+    }
+
+    private static Duration limit(Duration value, Duration fallback) {
+        return value != null ? value : fallback != null ? fallback : Duration.ZERO;
+    }
+
+    /**
+     * Adds the X-SQL-* headers just before the response commits, i.e. once the handler has run but before
+     * the body is written. Statements issued while the body streams are still counted for the log.
+     */
+    private static final class BudgetHeaderResponse extends HttpServletResponseWrapper {
+
+        private final RequestSqlStats stats;
+        private final SqlBudget budget;
+        private boolean written;
+
+        BudgetHeaderResponse(HttpServletResponse response, RequestSqlStats stats, SqlBudget budget) {
+            super(response);
+            this.stats = stats;
+            this.budget = budget;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            setHeader(TIME_HEADER, String.valueOf(stats.getElapsedMillis()));
+            setHeader(MAX_REPEATED_HEADER, String.valueOf(stats.getMaxRepeated()));
+            setHeader(BUDGET_HEADER, budget.violations(stats).isEmpty() ? "ok" : "exceeded");
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package com.medindev.shoppingcard.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "ux_category_name", columnList = "name", unique = true))
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,4 +23,14 @@ public class Category {
     @OneToMany(mappedBy = "category")
     private List<Product> products;
 
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    public Category(Long id, String name, List<Product> products) {
+        this.id = id;
+        this.name = name;
+        this.products = products;
+    }
 }
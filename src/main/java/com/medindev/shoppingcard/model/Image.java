@@ -6,25 +6,35 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.sql.Blob;
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_image_product", columnList = "product_id"))
 public class Image {
+    // Pooled table allocator: ids are known before INSERT, so a multi-file upload can be batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "image_id")
+    @TableGenerator(name = "image_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "image", allocationSize = 50)
     private Long id;
     private String name;
     private String fileName;
     private String fileType;
 
-    @Lob
-    private Blob image;
-    private String downloadUrl;
+    // SHA-256 key of the content in the blob store; the bytes themselves no longer live in this table.
+    @Column(length = 64)
+    private String storageKey;
+    private long fileSize;
 
-    @ManyToOne
+    // Derivatives generated in the background; null until the pipeline has produced them.
+    @Column(length = 64)
+    private String thumbnailKey;
+    @Column(length = 64)
+    private String webKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
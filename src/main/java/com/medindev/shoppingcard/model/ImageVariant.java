@@ -0,0 +1,24 @@
+package com.medindev.shoppingcard.model;
+
+import java.util.Locale;
+
+public enum ImageVariant {
+    ORIGINAL,
+    THUMBNAIL,
+    WEB;
+
+    public static ImageVariant fromParameter(String size) {
+        if (size == null || size.isBlank()) {
+            return ORIGINAL;
+        }
+        try {
+            return valueOf(size.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image size: " + size);
+        }
+    }
+
+    public String parameterValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
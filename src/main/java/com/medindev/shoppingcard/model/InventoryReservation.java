@@ -0,0 +1,55 @@
+package com.medindev.shoppingcard.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Stock held for a checkout. The units leave {@link Product#getInventory()} when the reservation is
+ * made; committing keeps them out, releasing or expiring puts them back.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_reservation_status_expires", columnList = "status, expires_at"))
+public class InventoryReservation implements Persistable<String> {
+    @Id
+    @Column(length = 36)
+    private String id;
+    private Long productId;
+    private int quantity;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ReservationStatus status;
+    private Instant expiresAt;
+    private Instant createdAt;
+
+    // Ids are assigned, so tell Spring Data to INSERT instead of merging over an existing row.
+    @Transient
+    private boolean isNew = true;
+
+    public InventoryReservation(String id, Long productId, int quantity, Instant expiresAt) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = ReservationStatus.HELD;
+        this.expiresAt = expiresAt;
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -4,31 +4,50 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
+// Created by the migrations in db/migration; declared here so the mapping documents them.
+@Table(indexes = {
+        @Index(name = "idx_product_brand_name", columnList = "brand, name"),
+        @Index(name = "idx_product_category_brand", columnList = "category_id, brand"),
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_brand_id", columnList = "brand, id"),
+        @Index(name = "idx_product_category_id", columnList = "category_id, id")})
 public class Product {
+    // Pooled table allocator: ids are assigned before INSERT, so bulk imports can be JDBC-batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id")
+    @TableGenerator(name = "product_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "product", allocationSize = 500)
     private Long id;
     private String name;
     private String brand;
 
     private BigDecimal price;
+    // Written on insert only; afterwards stock moves through the relative updates in ProductRepository.
+    @Column(updatable = false)
     private int inventory;
     private String description;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Image> images;
 
+    // Bumped by every write, including the set-based ones in ProductRepository and ProductBulkService.
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    private Instant updatedAt;
 
     public Product(String name, String brand, BigDecimal price, int inventory, String description, Category category) {
         this.name = name;
@@ -0,0 +1,8 @@
+package com.medindev.shoppingcard.model;
+
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
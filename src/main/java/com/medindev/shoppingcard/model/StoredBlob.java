@@ -0,0 +1,51 @@
+package com.medindev.shoppingcard.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * One physical file in the blob store, shared by every image row whose content hashes to the same key.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+public class StoredBlob implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String storageKey;
+    private long size;
+    private long refCount;
+    private Instant createdAt;
+
+    // Keys are assigned, so tell Spring Data to INSERT instead of merging over an existing row.
+    @Transient
+    private boolean isNew = true;
+
+    public StoredBlob(String storageKey, long size) {
+        this.storageKey = storageKey;
+        this.size = size;
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public String getId() {
+        return storageKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -1,10 +1,20 @@
 package com.medindev.shoppingcard.repository;
 
+import com.medindev.shoppingcard.dto.CategoryDto;
 import com.medindev.shoppingcard.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
    Category findByName(String name);
     boolean existsByName(String name);
+
+    @Query("select c.id from Category c where c.name = :name")
+    Long findIdByName(@Param("name") String name);
+
+    @Query("select new com.medindev.shoppingcard.dto.CategoryDto(c.id, c.name) from Category c order by c.name")
+    List<CategoryDto> findAllDtos();
 }
@@ -2,6 +2,35 @@ package com.medindev.shoppingcard.repository;
 
 import com.medindev.shoppingcard.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
+
+    interface StorageKeys {
+        String getStorageKey();
+
+        String getThumbnailKey();
+
+        String getWebKey();
+    }
+
+    List<StorageKeys> findStorageKeysByProductIdIn(Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from Image i where i.product.id in :productIds")
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Guarded by the source key so derivatives of replaced content are never attached.
+    @Transactional
+    @Modifying
+    @Query("update Image i set i.thumbnailKey = :thumbnailKey, i.webKey = :webKey "
+            + "where i.id = :id and i.storageKey = :sourceKey")
+    int attachVariants(@Param("id") Long id, @Param("sourceKey") String sourceKey,
+                       @Param("thumbnailKey") String thumbnailKey, @Param("webKey") String webKey);
 }
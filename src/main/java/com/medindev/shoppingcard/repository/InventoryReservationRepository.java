@@ -0,0 +1,30 @@
+package com.medindev.shoppingcard.repository;
+
+import com.medindev.shoppingcard.model.InventoryReservation;
+import com.medindev.shoppingcard.model.ReservationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, String> {
+
+    // Conditional on the current state, so each reservation leaves HELD exactly once however many callers race.
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(@Param("id") String id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    // A hold past its expiry can no longer be committed, even before the sweeper has returned its stock.
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :to where r.id = :id and r.status = :from "
+            + "and r.expiresAt > :now")
+    int transitionIfLive(@Param("id") String id, @Param("from") ReservationStatus from,
+                         @Param("to") ReservationStatus to, @Param("now") Instant now);
+
+    List<InventoryReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAt(ReservationStatus status, Instant now,
+                                                                              Limit limit);
+}
@@ -1,22 +1,139 @@
 package com.medindev.shoppingcard.repository;
 
+import com.medindev.shoppingcard.dto.ProductDto;
 import com.medindev.shoppingcard.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends CrudRepository<Product, Long> {
-    List<Product> findByCategoryName(String category);
+    int STREAM_FETCH_SIZE = 500;
+
+    // Inner joins: the derived form outer-joins the optional category, which keeps planners from
+    // starting at the category name index and forces a scan of product.
+    @Query("select p from Product p join p.category c where c.name = :category")
+    List<Product> findByCategoryName(@Param("category") String category);
 
     List<Product> findByBrand(String brand);
 
-    List<Product> findByCategoryNameAndBrand(String category, String brand);
+    @Query("select p from Product p join p.category c where c.name = :category and p.brand = :brand")
+    List<Product> findByCategoryNameAndBrand(@Param("category") String category, @Param("brand") String brand);
 
     List<Product> findByName(String name);
 
     List<Product> findByBrandAndName(String brand, String name1);
 
     Long countByBrandAndName(String brand, String name);
+
+    @EntityGraph(attributePaths = {"category", "images"})
+    Optional<Product> findWithDetailsById(Long id);
+
+    // For edits: holding the row keeps a concurrent stock update from failing the edit's version check.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Product> findForUpdateById(Long id);
+
+    @Query("select new com.medindev.shoppingcard.dto.ProductDto("
+            + "p.id, p.name, p.brand, p.price, p.inventory, p.description, c.name) "
+            + "from Product p left join p.category c where p.id in :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Product p where p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Keyset pagination: every page starts strictly after the last id of the previous one. Selects straight
+    // into the DTO with the category joined, so a page is one statement and no entities are hydrated.
+    // One query per filter combination, each served by an index leading with its filter columns and
+    // then the id (see V4__keyset_indexes.sql); an "or :x is null" catch-all could use none of them.
+    String PAGE_SELECT = "select new com.medindev.shoppingcard.dto.ProductDto("
+            + "p.id, p.name, p.brand, p.price, p.inventory, p.description, c.name) ";
+
+    @Query(PAGE_SELECT + "from Product p left join p.category c where p.id > :afterId order by p.id")
+    List<ProductDto> findPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(PAGE_SELECT + "from Product p join p.category c where c.name = :category and p.id > :afterId "
+            + "order by p.id")
+    List<ProductDto> findPageByCategory(@Param("category") String category, @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    @Query(PAGE_SELECT + "from Product p left join p.category c where p.brand = :brand and p.id > :afterId "
+            + "order by p.id")
+    List<ProductDto> findPageByBrand(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PAGE_SELECT + "from Product p join p.category c where c.name = :category and p.brand = :brand "
+            + "and p.id > :afterId order by p.id")
+    List<ProductDto> findPageByCategoryAndBrand(@Param("category") String category, @Param("brand") String brand,
+                                                @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PAGE_SELECT + "from Product p left join p.category c where p.name = :name and p.id > :afterId "
+            + "order by p.id")
+    List<ProductDto> findPageByName(@Param("name") String name, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(PAGE_SELECT + "from Product p left join p.category c where p.brand = :brand and p.name = :name "
+            + "and p.id > :afterId order by p.id")
+    List<ProductDto> findPageByBrandAndName(@Param("brand") String brand, @Param("name") String name,
+                                            @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select p.id from Product p join p.category c where c.name = :category and p.id > :afterId order by p.id")
+    List<Long> findIdsByCategory(@Param("category") String category, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select p.id from Product p where p.brand = :brand and p.id > :afterId order by p.id")
+    List<Long> findIdsByBrand(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select p.id from Product p join p.category c where c.name = :category and p.brand = :brand "
+            + "and p.id > :afterId order by p.id")
+    List<Long> findIdsByCategoryAndBrand(@Param("category") String category, @Param("brand") String brand,
+                                         @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Product p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Stock only moves through these updates; the entity maps inventory as insert-only.
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory - :quantity, p.version = p.version + 1, "
+            + "p.updatedAt = instant where p.id = :id and p.inventory >= :quantity")
+    int decrementInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory + :delta, p.version = p.version + 1, "
+            + "p.updatedAt = instant where p.id = :id")
+    int adjustInventory(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update Product p set p.inventory = :inventory, p.version = p.version + 1, "
+            + "p.updatedAt = instant where p.id = :id and p.inventory = :expected")
+    int setInventory(@Param("id") Long id, @Param("expected") int expected, @Param("inventory") int inventory);
+
+    @Modifying
+    @Query("update Product p set p.inventory = :inventory, p.version = p.version + 1, "
+            + "p.updatedAt = instant where p.id = :id")
+    int overwriteInventory(@Param("id") Long id, @Param("inventory") int inventory);
+
+    @Query("select p.inventory from Product p where p.id = :id")
+    Optional<Integer> findInventoryById(@Param("id") Long id);
+
+    // Null filters are ignored; the driver only honours the fetch size with useCursorFetch=true on MySQL.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select p from Product p left join fetch p.category c "
+            + "where (:category is null or c.name = :category) and (:brand is null or p.brand = :brand) "
+            + "order by p.id")
+    Stream<Product> streamWithCategory(@Param("category") String category, @Param("brand") String brand);
 }
@@ -0,0 +1,37 @@
+package com.medindev.shoppingcard.repository;
+
+import com.medindev.shoppingcard.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + 1 where b.storageKey = :key")
+    int incrementRefCount(@Param("key") String key);
+
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount - 1 where b.storageKey = :key and b.refCount > 0")
+    int decrementRefCount(@Param("key") String key);
+
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = case when b.refCount > :count then b.refCount - :count else 0 end "
+            + "where b.storageKey = :key")
+    int decrementRefCountBy(@Param("key") String key, @Param("count") int count);
+
+    @Modifying
+    @Query("delete from StoredBlob b where b.storageKey = :key and b.refCount = 0")
+    int deleteIfUnreferenced(@Param("key") String key);
+
+    @Query("select b.storageKey from StoredBlob b where b.refCount = 0 and b.createdAt < :before")
+    List<String> findUnreferencedKeys(@Param("before") Instant before);
+
+    @Query("select count(b), coalesce(sum(b.size), 0), coalesce(sum(b.size * b.refCount), 0), coalesce(sum(b.refCount), 0) "
+            + "from StoredBlob b where b.refCount > 0")
+    List<Object[]> summarize();
+}
@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/** Deletes the listed ids, or when none are given, every product matching the brand and/or category. */
+@Data
+public class BulkProductDeleteRequest {
+    private List<Long> ids;
+    private String brand;
+    private String category;
+}
@@ -0,0 +1,10 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkProductUpdateRequest {
+    private List<ProductPatch> items;
+}
@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class PriceQuoteRequest {
+    private List<QuoteLine> lines;
+    /** Optional discount as a fraction between 0 and 1 (0.1 for 10%). */
+    private BigDecimal discountRate;
+}
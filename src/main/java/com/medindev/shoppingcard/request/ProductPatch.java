@@ -0,0 +1,20 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Partial update of one product; fields left null keep their current value. Stock moves by a delta,
+ * or is set to {@code inventory}: outright, or only if it still is {@code expectedInventory} when
+ * that is given.
+ */
+@Data
+public class ProductPatch {
+    private Long id;
+    private BigDecimal price;
+    private Integer inventoryDelta;
+    private Integer inventory;
+    private Integer expectedInventory;
+    private String description;
+}
@@ -9,7 +9,11 @@ public class ProductUpdateRequest {
     private String name;
     private String brand;
     private BigDecimal price;
-    private int inventory;
+    // Units to add or, when negative, remove.
+    private Integer inventoryDelta;
+    // Sets the stock outright, only if it still is expectedInventory; one without the other is rejected.
+    private Integer inventory;
+    private Integer expectedInventory;
     private String description;
     private Category category;
 }
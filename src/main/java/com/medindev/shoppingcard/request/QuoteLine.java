@@ -0,0 +1,9 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+@Data
+public class QuoteLine {
+    private Long productId;
+    private int quantity = 1;
+}
@@ -0,0 +1,11 @@
+package com.medindev.shoppingcard.request;
+
+import lombok.Data;
+
+@Data
+public class ReserveInventoryRequest {
+    private Long productId;
+    private int quantity;
+    /** Optional hold duration; the configured default applies when absent. */
+    private Long ttlSeconds;
+}
@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.medindev.shoppingcard.dto.BulkResult;
+import com.medindev.shoppingcard.request.ProductPatch;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IProductBulkService {
+    BulkResult updateProducts(List<ProductPatch> patches);
+    BulkResult deleteProducts(Collection<Long> ids);
+    BulkResult deleteProductsByFilter(String category, String brand);
+}
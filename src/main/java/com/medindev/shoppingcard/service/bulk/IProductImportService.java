@@ -0,0 +1,10 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.medindev.shoppingcard.dto.ImportSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IProductImportService {
+    ImportSummary importProducts(InputStream in, ImportFormat format) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.service.bulk;
+
+/** A single input row that cannot be imported; the import records it and moves on. */
+class ImportRowException extends RuntimeException {
+    private final long line;
+
+    ImportRowException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    long getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,69 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One JSON object per line, in the shape the export endpoint writes. A malformed line only fails
+ * that row. The category may be a plain name or an object with a {@code name} field.
+ */
+class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long currentLine;
+
+    NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            currentLine++;
+        } while (text.isBlank());
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new ImportRowException(currentLine, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new ImportRowException(currentLine, "Expected a JSON object");
+        }
+        Map<String, String> record = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isObject() && value.has("name")) {
+                value = value.get("name");
+            }
+            if (!value.isNull() && value.isValueNode()) {
+                record.put(field.getKey().toLowerCase(Locale.ROOT), value.asText());
+            }
+        }
+        return record;
+    }
+
+    @Override
+    public long line() {
+        return currentLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
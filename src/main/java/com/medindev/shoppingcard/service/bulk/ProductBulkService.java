@@ -0,0 +1,270 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.medindev.shoppingcard.config.BulkProperties;
+import com.medindev.shoppingcard.dto.BulkResult;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ProductNotFoundException;
+import com.medindev.shoppingcard.exception.StockMismatchException;
+import com.medindev.shoppingcard.repository.ImageRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.request.ProductPatch;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
+import com.medindev.shoppingcard.service.storage.BlobReferenceCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Set-based product maintenance for feeds that touch thousands of rows at once.
+ * <p>
+ * Work is split into chunks of {@link BulkProperties#getChunkSize()} products, each in its own
+ * transaction, and a {@link ProductsChangedEvent} is published once per chunk so caches and
+ * indexes refresh after each commit rather than per row. Updates go out as one batched JDBC
+ * statement per chunk, stock included: a delta never takes stock below zero, and an absolute
+ * {@code inventory} is set outright, or only if the stock still is the item's
+ * {@code expectedInventory} when it has one. An item whose stock condition fails is not applied at
+ * all and is reported back by id, like an item whose product does not exist. Products in hot-SKU
+ * mode on this instance have their stock changed through {@link IInventoryService} before the
+ * chunk runs, since part of their stock is leased out of the row. Deletes are
+ * {@code DELETE ... WHERE id IN (...)} statements that also release the blob references of the
+ * products' images.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductBulkService implements IProductBulkService {
+
+    // Null parameters keep the current value, so one statement shape serves every partial update.
+    // Stock is set (absolute) or moved (delta, 0 for none), under the conditions in the where clause.
+    // Version and timestamp are maintained here since the statement bypasses the entity.
+    private static final String UPDATE_SQL = "update product set price = coalesce(?, price), "
+            + "description = coalesce(?, description), inventory = coalesce(?, inventory + ?), "
+            + "version = version + 1, updated_at = current_timestamp "
+            + "where id = ? and inventory + ? >= 0 and inventory = coalesce(?, inventory)";
+    private static final int[] UPDATE_TYPES = {Types.DECIMAL, Types.VARCHAR, Types.INTEGER, Types.INTEGER,
+            Types.BIGINT, Types.INTEGER, Types.INTEGER};
+
+    private final ProductRepository productRepository;
+    private final ImageRepository imageRepository;
+    private final IInventoryService inventoryService;
+    private final BlobReferenceCounter blobReferenceCounter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkProperties properties;
+
+    @Override
+    public BulkResult updateProducts(List<ProductPatch> patches) {
+        patches.forEach(ProductBulkService::validate);
+        long started = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        Set<Long> refused = new LinkedHashSet<>();
+        for (List<ProductPatch> chunk : partition(patches)) {
+            List<ProductPatch> batch = new ArrayList<>(chunk.size());
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (ProductPatch patch : chunk) {
+                boolean hot = hasStockChange(patch) && inventoryService.isHotSku(patch.getId());
+                if (hot && !changeHotStock(patch)) {
+                    refused.add(patch.getId());
+                    continue;
+                }
+                batch.add(patch);
+                rows.add(row(patch, !hot));
+            }
+            if (!batch.isEmpty()) {
+                boolean[] applied = transactionTemplate.execute(status -> updateChunk(batch, rows));
+                for (int i = 0; i < applied.length; i++) {
+                    if (applied[i]) {
+                        affected++;
+                    } else {
+                        refused.add(batch.get(i).getId());
+                    }
+                }
+            }
+            chunks++;
+        }
+        return result("Updated", patches.size(), affected, List.copyOf(refused), chunks, started);
+    }
+
+    @Override
+    public BulkResult deleteProducts(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        long started = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        for (List<Long> chunk : partition(distinct)) {
+            affected += deleteChunk(chunk);
+            chunks++;
+        }
+        return result("Deleted", distinct.size(), affected, List.of(), chunks, started);
+    }
+
+    @Override
+    public BulkResult deleteProductsByFilter(String category, String brand) {
+        if (isBlank(category) && isBlank(brand)) {
+            throw new IllegalArgumentException("A brand or category filter is required");
+        }
+        long started = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        long afterId = 0;
+        // Keyset walk over the matching ids, so memory stays bounded however many products match.
+        while (true) {
+            List<Long> chunk = findIdsByFilter(blankToNull(category), blankToNull(brand), afterId,
+                    Limit.of(properties.getChunkSize()));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            affected += deleteChunk(chunk);
+            chunks++;
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        return result("Deleted", affected, affected, List.of(), chunks, started);
+    }
+
+    // One query per filter combination, so each walks its own index.
+    private List<Long> findIdsByFilter(String category, String brand, long afterId, Limit limit) {
+        if (category == null) {
+            return productRepository.findIdsByBrand(brand, afterId, limit);
+        }
+        return brand == null ? productRepository.findIdsByCategory(category, afterId, limit)
+                : productRepository.findIdsByCategoryAndBrand(category, brand, afterId, limit);
+    }
+
+    /** Runs the chunk's batched update and returns which of its items were applied. */
+    private boolean[] updateChunk(List<ProductPatch> batch, List<Object[]> rows) {
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, rows, UPDATE_TYPES);
+        boolean[] applied = new boolean[counts.length];
+        Set<Long> unreported = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                applied[i] = true;
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unreported.add(batch.get(i).getId());
+            }
+        }
+        if (!unreported.isEmpty()) {
+            // Some drivers do not report per-row counts for batches (MySQL's does for updates, rewritten or
+            // not). The statement then matched every product that exists, unless a stock condition
+            // failed, which a lookup cannot tell; such items are counted as applied.
+            Set<Long> existing = new HashSet<>(productRepository.findIdsByIdIn(unreported));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.SUCCESS_NO_INFO && existing.contains(batch.get(i).getId())) {
+                    applied[i] = true;
+                }
+            }
+        }
+        Set<Long> updated = new HashSet<>();
+        for (int i = 0; i < applied.length; i++) {
+            if (applied[i]) {
+                updated.add(batch.get(i).getId());
+            }
+        }
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(updated));
+        }
+        return applied;
+    }
+
+    private static Object[] row(ProductPatch patch, boolean withStock) {
+        Integer inventory = withStock ? patch.getInventory() : null;
+        int delta = withStock && patch.getInventoryDelta() != null ? patch.getInventoryDelta() : 0;
+        Integer expected = withStock ? patch.getExpectedInventory() : null;
+        return new Object[]{patch.getPrice(), patch.getDescription(), inventory, delta, patch.getId(), delta,
+                expected};
+    }
+
+    // Outside the chunk's transaction: a refused change must not mark it for rollback, and the item is
+    // then left out of the chunk, so its price and description are not applied either.
+    private boolean changeHotStock(ProductPatch patch) {
+        try {
+            if (patch.getInventory() != null) {
+                inventoryService.set(patch.getId(), patch.getExpectedInventory(), patch.getInventory());
+            } else {
+                inventoryService.adjust(patch.getId(), patch.getInventoryDelta());
+            }
+            return true;
+        } catch (InsufficientStockException | StockMismatchException | ProductNotFoundException e) {
+            log.debug("Stock change refused for product {}: {}", patch.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean hasStockChange(ProductPatch patch) {
+        return patch.getInventory() != null || (patch.getInventoryDelta() != null && patch.getInventoryDelta() != 0);
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<String> keys = imageRepository.findStorageKeysByProductIdIn(ids).stream()
+                    .flatMap(image -> Stream.of(image.getStorageKey(), image.getThumbnailKey(), image.getWebKey()))
+                    .filter(Objects::nonNull)
+                    .toList();
+            imageRepository.deleteByProductIds(ids);
+            int count = productRepository.deleteByIds(ids);
+            blobReferenceCounter.releaseAll(keys);
+            eventPublisher.publishEvent(new ProductsChangedEvent(ids));
+            return count;
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    private <T> List<List<T>> partition(List<T> items) {
+        int size = properties.getChunkSize();
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        return chunks;
+    }
+
+    private BulkResult result(String action, long requested, long affected, List<Long> refused, int chunks,
+                              long started) {
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("{} {} of {} products in {} chunks, {} ms", action, affected, requested, chunks, elapsedMillis);
+        return new BulkResult(requested, affected, refused, chunks, elapsedMillis);
+    }
+
+    private static void validate(ProductPatch patch) {
+        if (patch.getId() == null) {
+            throw new IllegalArgumentException("Every item needs an id");
+        }
+        if (patch.getPrice() != null && patch.getPrice().signum() < 0) {
+            throw new IllegalArgumentException("Price must not be negative for product " + patch.getId());
+        }
+        if (patch.getExpectedInventory() != null && patch.getInventory() == null) {
+            throw new IllegalArgumentException("expectedInventory needs inventory for product " + patch.getId());
+        }
+        if (patch.getInventory() != null && patch.getInventoryDelta() != null) {
+            throw new IllegalArgumentException("Use either inventory or inventoryDelta for product " + patch.getId());
+        }
+        if (patch.getInventory() != null && patch.getInventory() < 0) {
+            throw new IllegalArgumentException("Inventory must not be negative for product " + patch.getId());
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String blankToNull(String value) {
+        return isBlank(value) ? null : value;
+    }
+}
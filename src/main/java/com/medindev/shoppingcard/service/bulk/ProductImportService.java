@@ -0,0 +1,163 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medindev.shoppingcard.config.ImportProperties;
+import com.medindev.shoppingcard.dto.ImportError;
+import com.medindev.shoppingcard.dto.ImportSummary;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.service.category.CategoryResolver;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports products from a CSV or NDJSON stream.
+ * <p>
+ * Rows are parsed and validated as they arrive and written in chunks of
+ * {@link ImportProperties#getCommitInterval()}, one transaction per chunk. Within a chunk the
+ * persistence context is flushed every {@link ImportProperties#getBatchSize()} rows, which Hibernate
+ * sends as JDBC batches now that product ids come from a pooled table allocator. Categories resolve
+ * through {@link CategoryResolver} before each chunk's transaction, so each distinct name costs at
+ * most one query per import and the chunk holds no category row locks.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService implements IProductImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryResolver categoryResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+
+    @Override
+    public ImportSummary importProducts(InputStream in, ImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress(properties.getMaxReportedErrors());
+        List<ProductRow> chunk = new ArrayList<>();
+        try (ProductRowReader reader = open(in, format)) {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    record = reader.next();
+                } catch (ImportRowException e) {
+                    progress.rowsRead++;
+                    progress.fail(e.getLine(), e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                progress.rowsRead++;
+                try {
+                    chunk.add(ProductRow.parse(reader.line(), record));
+                } catch (ImportRowException e) {
+                    progress.fail(e.getLine(), e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= properties.getCommitInterval()) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (ImportRowException e) {
+            // Unreadable header: nothing after it can be mapped to columns.
+            progress.fail(e.getLine(), e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        double rowsPerSecond = progress.imported * 1_000_000_000.0 / elapsedNanos;
+        log.info("Imported {} of {} {} rows in {} ms ({} rows/s), {} failed", progress.imported, progress.rowsRead,
+                format, elapsedNanos / 1_000_000, Math.round(rowsPerSecond), progress.failed);
+        return new ImportSummary(progress.rowsRead, progress.imported, progress.failed, progress.errors,
+                progress.errorsTruncated, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private ProductRowReader open(InputStream in, ImportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return switch (format) {
+            case CSV -> new CsvProductRowReader(reader);
+            case NDJSON -> new NdjsonProductRowReader(reader, objectMapper);
+        };
+    }
+
+    private void writeChunk(List<ProductRow> chunk, Progress progress) {
+        try {
+            Map<String, Long> categoryIds = new HashMap<>();
+            chunk.forEach(row -> categoryIds.computeIfAbsent(row.category(), categoryResolver::resolveId));
+            Integer written = transactionTemplate.execute(status -> persist(chunk, categoryIds));
+            progress.imported += written != null ? written : 0;
+        } catch (RuntimeException e) {
+            long first = chunk.get(0).line();
+            long last = chunk.get(chunk.size() - 1).line();
+            log.warn("Import chunk for lines {}-{} rolled back", first, last, e);
+            progress.failed += chunk.size();
+            progress.report(first, "Lines " + first + "-" + last + " rolled back: " + e.getMessage());
+        }
+    }
+
+    private int persist(List<ProductRow> chunk, Map<String, Long> categoryIds) {
+        int batchSize = properties.getBatchSize();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (ProductRow row : chunk) {
+            Product product = row.toProduct(categoryResolver.reference(categoryIds.get(row.category())));
+            entityManager.persist(product);
+            ids.add(product.getId());
+            if (ids.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        eventPublisher.publishEvent(new ProductsChangedEvent(ids));
+        return ids.size();
+    }
+
+    private static final class Progress {
+        private final int maxReportedErrors;
+        private final List<ImportError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private boolean errorsTruncated;
+
+        private Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            report(line, message);
+        }
+
+        private void report(long line, String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** A validated import record. */
+record ProductRow(long line, String name, String brand, BigDecimal price, int inventory, String description,
+                  String category) {
+
+    // Default VARCHAR length of the product and category columns.
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    static ProductRow parse(long line, Map<String, String> record) {
+        String name = text(line, record, "name", true);
+        String brand = text(line, record, "brand", false);
+        String description = text(line, record, "description", false);
+        String category = text(line, record, "category", true);
+        BigDecimal price;
+        int inventory;
+        try {
+            price = new BigDecimal(text(line, record, "price", true));
+        } catch (NumberFormatException e) {
+            throw new ImportRowException(line, "Invalid price: " + record.get("price"));
+        }
+        try {
+            String value = text(line, record, "inventory", false);
+            inventory = value == null ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ImportRowException(line, "Invalid inventory: " + record.get("inventory"));
+        }
+        if (price.signum() < 0) {
+            throw new ImportRowException(line, "Price must not be negative");
+        }
+        if (inventory < 0) {
+            throw new ImportRowException(line, "Inventory must not be negative");
+        }
+        return new ProductRow(line, name, brand, price, inventory, description, category);
+    }
+
+    Product toProduct(Category resolvedCategory) {
+        return new Product(name, brand, price, inventory, description, resolvedCategory);
+    }
+
+    private static String text(long line, Map<String, String> record, String column, boolean required) {
+        String value = record.get(column);
+        if (value == null || value.isBlank()) {
+            if (required) {
+                throw new ImportRowException(line, "Missing " + column);
+            }
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new ImportRowException(line, column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Pulls one record at a time off an upload, so an import never holds more than a chunk in memory.
+ */
+interface ProductRowReader extends Closeable {
+
+    /**
+     * Returns the next record keyed by lower-case column name, or {@code null} at end of input.
+     *
+     * @throws ImportRowException if the record is malformed; the reader stays usable
+     */
+    Map<String, String> next() throws IOException;
+
+    /** Line on which the record last returned by {@link #next()} started. */
+    long line();
+}
@@ -0,0 +1,149 @@
+package com.medindev.shoppingcard.service.category;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medindev.shoppingcard.config.CategoryCacheProperties;
+import com.medindev.shoppingcard.event.CatalogChangedElsewhereEvent;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves category names to ids for product writes without a SELECT per call.
+ * <p>
+ * Name-to-id mappings are cached in a bounded Caffeine cache, so a hit costs no query at all. A
+ * miss runs once per name however many callers ask at the same time: they wait for the one lookup
+ * in flight. That lookup reads the id and, for a new name, inserts the row in a short transaction
+ * of its own, committed before the caller's write starts, so no category row stays locked for the
+ * length of a product write. A concurrent insert of the same name, from another instance, ends in
+ * a duplicate key and the lookup reads the row that won.
+ */
+@Component
+public class CategoryResolver {
+
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+    private static final String INSERT_SQL = "insert into category (name, version, updated_at) values (?, 0, ?)";
+
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final Cache<String, Long> idsByName;
+    private final ConcurrentMap<String, CompletableFuture<Long>> lookups = new ConcurrentHashMap<>();
+
+    public CategoryResolver(CategoryRepository categoryRepository, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, CategoryCacheProperties properties) {
+        this.categoryRepository = categoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .build();
+    }
+
+    /**
+     * Returns the id of the category with the given name, creating it if needed. Call this before
+     * the writing transaction opens; a category it creates stays even if that write rolls back.
+     */
+    public Long resolveId(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Category name is required");
+        }
+        Long id = idsByName.getIfPresent(name);
+        if (id != null) {
+            return id;
+        }
+        CompletableFuture<Long> lookup = new CompletableFuture<>();
+        CompletableFuture<Long> inFlight = lookups.computeIfAbsent(name, key -> lookup);
+        if (inFlight == lookup) {
+            try {
+                Long found = findOrCreate(name);
+                idsByName.put(name, found);
+                lookup.complete(found);
+            } catch (RuntimeException e) {
+                lookup.completeExceptionally(e);
+            } finally {
+                lookups.remove(name, lookup);
+            }
+        }
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /** A lazy reference bound to the caller's persistence context, for an id {@link #resolveId} returned. */
+    public Category reference(Long id) {
+        return categoryRepository.getReferenceById(id);
+    }
+
+    /**
+     * Forgets the mapping of a renamed or deleted category; inside a transaction, once it has
+     * committed, so a concurrent miss cannot cache the old mapping again from a row not yet changed.
+     */
+    public void evict(String name) {
+        if (name == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idsByName.invalidate(name);
+                }
+            });
+            return;
+        }
+        idsByName.invalidate(name);
+    }
+
+    public void evictAll() {
+        idsByName.invalidateAll();
+    }
+
+    // Another instance may have renamed or deleted any category.
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        evictAll();
+    }
+
+    private Long findOrCreate(String name) {
+        Long id = categoryRepository.findIdByName(name);
+        for (int attempt = 0; id == null && attempt < MAX_CREATE_ATTEMPTS; attempt++) {
+            try {
+                requiresNew.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, statement -> {
+                    statement.setString(1, name);
+                    statement.setTimestamp(2, Timestamp.from(Instant.now()),
+                            Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC)));
+                }));
+            } catch (DuplicateKeyException e) {
+                // Created concurrently; the read below finds it.
+            }
+            id = categoryRepository.findIdByName(name);
+        }
+        if (id == null) {
+            // Only if the row keeps being deleted between the insert and the read.
+            throw new IllegalStateException("Category could not be resolved: " + name);
+        }
+        return id;
+    }
+}
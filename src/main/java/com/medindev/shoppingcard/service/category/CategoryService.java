@@ -1,11 +1,18 @@
 package com.medindev.shoppingcard.service.category;
 
+import com.medindev.shoppingcard.dto.CategoryDto;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
 import com.medindev.shoppingcard.exception.AlreadyExistsException;
 import com.medindev.shoppingcard.exception.ResourceNotFoundException;
 import com.medindev.shoppingcard.model.Category;
 import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.service.product.CatalogVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +22,10 @@ import java.util.Optional;
 public class CategoryService implements  ICategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Override
     public Category getCategoryById(Long id) {
@@ -23,35 +34,55 @@ public class CategoryService implements  ICategoryService {
 
     @Override
     public Category getCategoryByName(String name) {
-        return categoryRepository.findByName(name);
+        return Optional.ofNullable(categoryRepository.findByName(name))
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with name: " + name));
     }
 
     @Override
     public Category addCategory(Category category) {
-        return Optional.of(category).filter(c -> !categoryRepository.existsByName(c.getName()))
-                .map(categoryRepository::save)
-                .orElseThrow(() -> new AlreadyExistsException("Category already exists with name: " + category.getName()));
+        try {
+            return Optional.of(category).filter(c -> !categoryRepository.existsByName(c.getName()))
+                    .map(categoryRepository::save)
+                    .map(saved -> {
+                        catalogVersion.advance();
+                        return saved;
+                    })
+                    .orElseThrow(() -> new AlreadyExistsException("Category already exists with name: " + category.getName()));
+        } catch (DataIntegrityViolationException e) {
+            throw new AlreadyExistsException("Category already exists with name: " + category.getName());
+        }
     }
 
     @Override
+    @Transactional
     public Category updateCategory(Category category, Long id) {
         return Optional.ofNullable(getCategoryById(id)).map(oldCategory ->{
+            categoryResolver.evict(oldCategory.getName());
             oldCategory.setName(category.getName());
-            return categoryRepository.save(oldCategory);
+            Category saved = categoryRepository.save(oldCategory);
+            categoryResolver.evict(saved.getName());
+            // products denormalize the category name into caches and the search index
+            eventPublisher.publishEvent(new ProductsChangedEvent(productRepository.findIdsByCategoryId(id)));
+            return saved;
         }).orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
 
     @Override
     public void deleteCategoryById(Long id) {
         categoryRepository.findById(id)
-                .ifPresentOrElse(categoryRepository::delete, () -> {
+                .ifPresentOrElse(category -> {
+                    categoryRepository.delete(category);
+                    categoryResolver.evict(category.getName());
+                    catalogVersion.advance();
+                }, () -> {
                     throw new ResourceNotFoundException("Category not found with id: " + id);
                 });
 
     }
 
     @Override
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getAllCategories() {
+        return categoryRepository.findAllDtos();
     }
 }
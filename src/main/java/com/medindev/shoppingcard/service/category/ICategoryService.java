@@ -1,5 +1,6 @@
 package com.medindev.shoppingcard.service.category;
 
+import com.medindev.shoppingcard.dto.CategoryDto;
 import com.medindev.shoppingcard.model.Category;
 
 import java.util.List;
@@ -10,5 +11,5 @@ public interface ICategoryService {
     Category addCategory(Category category);
     Category updateCategory(Category category, Long id);
     void deleteCategoryById(Long id);
-    List<Category> getAllCategories();
+    List<CategoryDto> getAllCategories();
 }
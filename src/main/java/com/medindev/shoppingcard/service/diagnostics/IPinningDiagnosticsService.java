@@ -0,0 +1,8 @@
+package com.medindev.shoppingcard.service.diagnostics;
+
+import com.medindev.shoppingcard.dto.PinningReport;
+
+public interface IPinningDiagnosticsService {
+    PinningReport getReport();
+    void reset();
+}
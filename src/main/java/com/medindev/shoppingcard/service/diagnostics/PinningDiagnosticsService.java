@@ -0,0 +1,138 @@
+package com.medindev.shoppingcard.service.diagnostics;
+
+import com.medindev.shoppingcard.config.PinningDiagnosticsProperties;
+import com.medindev.shoppingcard.dto.PinnedSite;
+import com.medindev.shoppingcard.dto.PinningReport;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects virtual threads pinning their carrier thread, typically by blocking inside a
+ * {@code synchronized} block (JDBC drivers, blob streams) or a native frame.
+ * <p>
+ * A JFR stream listens for {@code jdk.VirtualThreadPinned} events and aggregates them by stack, so
+ * the report shows which code pins, how often and for how long. Each new pinning stack is logged once.
+ * Only active when {@code spring.threads.virtual.enabled} is set.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PinningDiagnosticsService implements IPinningDiagnosticsService {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final PinningDiagnosticsProperties properties;
+    private final Environment environment;
+    private final Map<List<String>, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private volatile RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || !Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(properties.getThreshold()).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        log.info("Recording virtual thread pinning longer than {}", properties.getThreshold());
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public PinningReport getReport() {
+        List<PinnedSite> report = new ArrayList<>(sites.size());
+        sites.forEach((stack, site) -> report.add(new PinnedSite(stack, site.count.get(),
+                site.totalNanos.get() / 1e6, site.maxNanos.get() / 1e6)));
+        report.sort(Comparator.comparingDouble(PinnedSite::getTotalMillis).reversed());
+        return new PinningReport(Threading.VIRTUAL.isActive(environment), stream != null, events.sum(),
+                totalNanos.sum() / 1e6, report);
+    }
+
+    @Override
+    public void reset() {
+        sites.clear();
+        events.reset();
+        totalNanos.reset();
+    }
+
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        events.increment();
+        totalNanos.add(nanos);
+        List<String> stack = stack(event.getStackTrace());
+        Site site = sites.get(stack);
+        if (site == null) {
+            if (sites.size() >= properties.getMaxSites()) {
+                return;
+            }
+            site = sites.computeIfAbsent(stack, key -> new Site());
+            if (site.count.get() == 0) {
+                log.warn("Virtual thread pinned its carrier for {} ms at:\n\t{}", nanos / 1_000_000,
+                        String.join("\n\t", stack));
+            }
+        }
+        site.count.incrementAndGet();
+        site.totalNanos.addAndGet(nanos);
+        site.maxNanos.accumulate(nanos);
+    }
+
+    // Drops the JDK's parking and continuation frames so the stack starts at the code that blocked while pinned.
+    private List<String> stack(RecordedStackTrace trace) {
+        if (trace == null) {
+            return List.of("<no stack trace>");
+        }
+        List<String> frames = new ArrayList<>(properties.getStackDepth());
+        for (RecordedFrame frame : trace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.lang.VirtualThread") || type.startsWith("jdk.internal.")
+                    || (frames.isEmpty() && (type.equals("java.util.concurrent.locks.LockSupport")
+                    || type.equals("java.lang.Thread")))) {
+                continue;
+            }
+            frames.add(type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber());
+            if (frames.size() == properties.getStackDepth()) {
+                break;
+            }
+        }
+        return List.copyOf(frames);
+    }
+
+    private static final class Site {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
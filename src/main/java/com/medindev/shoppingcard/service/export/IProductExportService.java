@@ -0,0 +1,8 @@
+package com.medindev.shoppingcard.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IProductExportService {
+    void exportProducts(String category, String brand, OutputStream out) throws IOException;
+}
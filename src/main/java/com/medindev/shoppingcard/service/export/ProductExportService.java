@@ -0,0 +1,56 @@
+package com.medindev.shoppingcard.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ProductExportService implements IProductExportService {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the catalog as newline-delimited JSON while reading it from an open JDBC cursor: one
+     * product per line, each line terminated by {@code \n}. Rows are detached in chunks of {@link ProductRepository#STREAM_FETCH_SIZE} so the
+     * persistence context, and therefore the heap, never holds more than one fetch window.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(String category, String brand, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Product> products = productRepository.streamWithCategory(category, brand);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Jackson separates root values with a space by default; the newline below is the only separator.
+            generator.setRootValueSeparator(null);
+            int written = 0;
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, ProductDto.from(iterator.next()));
+                generator.writeRaw('\n');
+                if (++written % ProductRepository.STREAM_FETCH_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.flush();
+        }
+    }
+}
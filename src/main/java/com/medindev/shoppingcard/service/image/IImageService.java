@@ -1,14 +1,18 @@
 package com.medindev.shoppingcard.service.image;
 
-import com.medindev.shoppingcard.dto.ImageDto;
+import com.medindev.shoppingcard.dto.DedupStats;
+import com.medindev.shoppingcard.dto.ImageUploadResult;
 import com.medindev.shoppingcard.model.Image;
+import com.medindev.shoppingcard.model.ImageVariant;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface IImageService {
     Image getImageById(Long id);
+    ImageContent getImageContent(Image image, ImageVariant variant);
     void updateImage(MultipartFile file, Long imageId);
     void deleteImageById(Long id);
-    List<ImageDto> saveImages(List<MultipartFile> files, Long productId);
+    List<ImageUploadResult> saveImages(List<MultipartFile> files, Long productId);
+    DedupStats getDedupStats();
 }
@@ -0,0 +1,15 @@
+package com.medindev.shoppingcard.service.image;
+
+import com.medindev.shoppingcard.model.ImageVariant;
+import lombok.Value;
+import org.springframework.core.io.Resource;
+
+@Value
+public class ImageContent {
+    Resource resource;
+    String storageKey;
+    String contentType;
+    ImageVariant variant;
+    // True when the requested derivative is not ready yet and the original is served instead.
+    boolean fallback;
+}
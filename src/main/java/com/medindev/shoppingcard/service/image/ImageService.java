@@ -1,27 +1,53 @@
 package com.medindev.shoppingcard.service.image;
 
+import com.medindev.shoppingcard.dto.DedupStats;
 import com.medindev.shoppingcard.dto.ImageDto;
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
+import com.medindev.shoppingcard.exception.BlobUnavailableException;
 import com.medindev.shoppingcard.exception.ResourceNotFoundException;
 import com.medindev.shoppingcard.model.Image;
+import com.medindev.shoppingcard.model.ImageVariant;
 import com.medindev.shoppingcard.model.Product;
 import com.medindev.shoppingcard.repository.ImageRepository;
 import com.medindev.shoppingcard.service.product.ProductService;
+import com.medindev.shoppingcard.service.storage.BlobRef;
+import com.medindev.shoppingcard.service.storage.BlobReferenceCounter;
+import com.medindev.shoppingcard.service.storage.IBlobStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.sql.rowset.serial.SerialBlob;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ImageService implements IImageService {
 
+    public static final int VERSION_LENGTH = 16;
+    private static final String DOWNLOAD_PATH = "/api/v1/images/image/download/";
+
     private final ImageRepository imageRepository;
     private final ProductService productService;
+    private final IBlobStore blobStore;
+    private final BlobReferenceCounter blobReferenceCounter;
+    private final ThumbnailPipeline thumbnailPipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService imageUploadExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageTrafficMetrics imageTrafficMetrics;
 
 
     @Override
@@ -30,61 +56,182 @@ public class ImageService implements IImageService {
                 .orElseThrow(()-> new ResourceNotFoundException ("Image not found with id: " + id));
     }
 
+    @Override
+    public ImageContent getImageContent(Image image, ImageVariant variant) {
+        String variantKey = switch (variant) {
+            case ORIGINAL -> image.getStorageKey();
+            case THUMBNAIL -> image.getThumbnailKey();
+            case WEB -> image.getWebKey();
+        };
+        if (variantKey == null) {
+            thumbnailPipeline.submit(image.getId(), image.getStorageKey());
+            return new ImageContent(blobStore.load(image.getStorageKey()), image.getStorageKey(),
+                    image.getFileType(), ImageVariant.ORIGINAL, true);
+        }
+        String contentType = variant == ImageVariant.ORIGINAL ? image.getFileType() : MediaType.IMAGE_JPEG_VALUE;
+        return new ImageContent(blobStore.load(variantKey), variantKey, contentType, variant, false);
+    }
+
     @Override
     public void updateImage(MultipartFile file, Long imageId) {
-        Image image = getImageById(imageId);
+        BlobRef blob;
         try {
-            image.setFileName(file.getOriginalFilename());
+            blob = storeContent(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        blobReferenceCounter.register(blob);
+        transactionTemplate.executeWithoutResult(status -> {
+            Image image = getImageById(imageId);
+            List<String> previousKeys = storageKeys(image);
             image.setFileName(file.getOriginalFilename());
             image.setFileType(file.getContentType());
-            image.setImage(new SerialBlob(file.getBytes()));
+            image.setStorageKey(blob.getKey());
+            image.setFileSize(blob.getSize());
+            image.setThumbnailKey(null);
+            image.setWebKey(null);
             imageRepository.save(image);
-        } catch (IOException | SQLException e) {
-            throw new RuntimeException(e);
-        }
-
+            blobReferenceCounter.acquire(blob);
+            previousKeys.forEach(blobReferenceCounter::release);
+            thumbnailPipeline.submit(image.getId(), image.getStorageKey());
+            eventPublisher.publishEvent(ProductsChangedEvent.of(image.getProduct().getId()));
+        });
 
     }
 
     @Override
     public void deleteImageById(Long id) {
-        imageRepository.findById(id).ifPresentOrElse(imageRepository::delete,
-                () -> {
-                    throw new ResourceNotFoundException("Image not found with id: " + id);
-                });
+        transactionTemplate.executeWithoutResult(status ->
+                imageRepository.findById(id).ifPresentOrElse(image -> {
+                            imageRepository.delete(image);
+                            storageKeys(image).forEach(blobReferenceCounter::release);
+                            eventPublisher.publishEvent(ProductsChangedEvent.of(image.getProduct().getId()));
+                        },
+                        () -> {
+                            throw new ResourceNotFoundException("Image not found with id: " + id);
+                        }));
+
+    }
 
+    @Override
+    public DedupStats getDedupStats() {
+        return blobReferenceCounter.stats();
     }
 
+    /**
+     * Stores all files of an upload and inserts their rows in a single transaction.
+     * <p>
+     * Blob writes run in parallel before the transaction opens, so no connection is held during
+     * disk I/O. Content that is already stored is not written twice; the row just takes another
+     * reference on the existing blob. Ids come from a pooled allocator and the download URL is derived from the id, which
+     * lets Hibernate send every row in one JDBC batch. A file that cannot be stored is reported as
+     * failed without affecting the others.
+     */
     @Override
-    public List<ImageDto> saveImages (List<MultipartFile > file, Long productId) {
+    public List<ImageUploadResult> saveImages(List<MultipartFile> files, Long productId) {
         Product product = productService.getProductById(productId);
 
+        List<CompletableFuture<BlobRef>> stored = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> storeAndRegister(file), imageUploadExecutor))
+                .toList();
 
-        List<ImageDto> savedImageDto = new ArrayList<>();
-        for (MultipartFile f : file)
+        ImageUploadResult[] results = new ImageUploadResult[files.size()];
+        List<Image> images = new ArrayList<>();
+        List<BlobRef> blobs = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
             try {
+                BlobRef blob = stored.get(i).join();
                 Image image = new Image();
-                image.setFileName(f.getOriginalFilename());
-                image.setFileType(f.getContentType());
-                image.setImage(new SerialBlob(f.getBytes()));
+                image.setFileName(file.getOriginalFilename());
+                image.setFileType(file.getContentType());
+                image.setStorageKey(blob.getKey());
+                image.setFileSize(blob.getSize());
                 image.setProduct(product);
+                images.add(image);
+                blobs.add(blob);
+                positions.add(i);
+            } catch (CompletionException e) {
+                results[i] = ImageUploadResult.failed(file.getOriginalFilename(), e.getCause().getMessage());
+            }
+        }
 
-                String builDownloadUrl = "/api/v1/images/download/";
-                String downloadUrl = builDownloadUrl + image.getId();
-                image.setDownloadUrl(downloadUrl);
-                Image saveImage = imageRepository.save(image);
-
-                saveImage.setDownloadUrl(builDownloadUrl + saveImage.getId());
-                imageRepository.save(saveImage);
-
-                ImageDto imagedto = new ImageDto();
-                imagedto.setImageId(saveImage.getId());
-                imagedto.setImageName(saveImage.getFileName());
-                imagedto.setDownloadUrl(saveImage.getDownloadUrl());
-                savedImageDto.add(imagedto);
-                } catch (IOException | SQLException e) {
-                throw new RuntimeException(e.getMessage());
+        List<Image> saved = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // References first: a blob purged since it was registered fails its own file, not the batch.
+                for (int i = 0; i < images.size(); i++) {
+                    try {
+                        blobReferenceCounter.acquire(blobs.get(i));
+                        saved.add(images.get(i));
+                    } catch (BlobUnavailableException e) {
+                        results[positions.get(i)] = ImageUploadResult.failed(images.get(i).getFileName(), e.getMessage());
+                    }
+                }
+                imageRepository.saveAll(saved);
+                saved.forEach(image -> thumbnailPipeline.submit(image.getId(), image.getStorageKey()));
+                eventPublisher.publishEvent(ProductsChangedEvent.of(productId));
+            });
+            for (int i = 0; i < images.size(); i++) {
+                Image image = images.get(i);
+                if (results[positions.get(i)] == null) {
+                    results[positions.get(i)] = ImageUploadResult.saved(image.getFileName(), toDto(image));
+                }
             }
-        return savedImageDto;
+        } catch (RuntimeException e) {
+            for (int i = 0; i < images.size(); i++) {
+                Image image = images.get(i);
+                results[positions.get(i)] = ImageUploadResult.failed(image.getFileName(), e.getMessage());
+                blobReferenceCounter.purgeIfUnreferenced(image.getStorageKey());
+            }
+        }
+        return List.of(results);
+    }
+
+    public static ImageDto toDto(Image image) {
+        return toDto(image.getId(), image.getFileName(), image.getStorageKey());
+    }
+
+    public static ImageDto toDto(Long imageId, String fileName, String storageKey) {
+        String downloadUrl = downloadUrl(imageId, storageKey);
+        ImageDto imagedto = new ImageDto();
+        imagedto.setImageId(imageId);
+        imagedto.setImageName(fileName);
+        imagedto.setDownloadUrl(downloadUrl);
+        imagedto.setThumbnailUrl(downloadUrl + "&size=" + ImageVariant.THUMBNAIL.parameterValue());
+        imagedto.setWebUrl(downloadUrl + "&size=" + ImageVariant.WEB.parameterValue());
+        return imagedto;
+    }
+
+    // Derived rather than stored; the version parameter pins the URL to one content hash,
+    // which lets clients cache it forever.
+    public static String downloadUrl(Long imageId, String storageKey) {
+        return DOWNLOAD_PATH + imageId + "?v=" + storageKey.substring(0, VERSION_LENGTH);
+    }
+
+    // Streams the upload straight to the blob store instead of materialising it with getBytes().
+    private BlobRef storeContent(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            BlobRef blob = blobStore.store(in);
+            imageTrafficMetrics.received(file.getSize());
+            return blob;
+        }
+    }
+
+    private BlobRef storeAndRegister(MultipartFile file) {
+        try {
+            BlobRef blob = storeContent(file);
+            blobReferenceCounter.register(blob);
+            return blob;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> storageKeys(Image image) {
+        return Stream.of(image.getStorageKey(), image.getThumbnailKey(), image.getWebKey())
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
@@ -0,0 +1,36 @@
+package com.medindev.shoppingcard.service.image;
+
+import com.medindev.shoppingcard.model.ImageVariant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/** Bytes of image content received by uploads and sent by downloads, as {@code image.bytes}. */
+@Component
+public class ImageTrafficMetrics {
+
+    private final Counter received;
+    private final MeterRegistry registry;
+
+    public ImageTrafficMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.received = counter("in", "original");
+    }
+
+    public void received(long bytes) {
+        received.increment(bytes);
+    }
+
+    public void sent(long bytes, ImageVariant variant) {
+        counter("out", variant.parameterValue()).increment(bytes);
+    }
+
+    private Counter counter(String direction, String variant) {
+        return Counter.builder("image.bytes")
+                .baseUnit("bytes")
+                .description("Image bytes uploaded (in) and downloaded (out)")
+                .tag("direction", direction)
+                .tag("variant", variant)
+                .register(registry);
+    }
+}
@@ -0,0 +1,245 @@
+package com.medindev.shoppingcard.service.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medindev.shoppingcard.config.ImageProcessingProperties;
+import com.medindev.shoppingcard.repository.ImageRepository;
+import com.medindev.shoppingcard.service.storage.BlobRef;
+import com.medindev.shoppingcard.service.storage.BlobReferenceCounter;
+import com.medindev.shoppingcard.service.storage.IBlobStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the thumbnail and web derivatives of uploaded images off the request thread.
+ * <p>
+ * Work runs on a fixed pool with a bounded queue. When the queue is full the job is dropped rather
+ * than run on the caller, so uploads never wait for image processing; downloads fall back to the
+ * original and re-submit the job, which lets dropped work catch up once the backlog drains. A job
+ * already queued or running for the same image content is not submitted again, and content that
+ * cannot have derivatives at all is remembered, so repeated downloads of a missing variant do not
+ * pile up decoding work.
+ */
+@Slf4j
+@Component
+public class ThumbnailPipeline {
+
+    private final ImageProcessingProperties properties;
+    private final IBlobStore blobStore;
+    private final ImageRepository imageRepository;
+    private final BlobReferenceCounter blobReferenceCounter;
+    private final TransactionTemplate transactionTemplate;
+    private static final int MAX_UNDERIVABLE_KEYS = 10_000;
+
+    private final ThreadPoolExecutor executor;
+    /** Keyed by content as well, so a re-upload is not swallowed by the job still running for the old file. */
+    private final Set<Job> inFlight = ConcurrentHashMap.newKeySet();
+    /** Storage keys of originals that are no decodable image or too large; content under a key never changes. */
+    private final Cache<String, Boolean> underivable = Caffeine.newBuilder().maximumSize(MAX_UNDERIVABLE_KEYS).build();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ThumbnailPipeline(ImageProcessingProperties properties, IBlobStore blobStore, ImageRepository imageRepository,
+                             BlobReferenceCounter blobReferenceCounter, TransactionTemplate transactionTemplate,
+                             Environment environment) {
+        this.properties = properties;
+        this.blobStore = blobStore;
+        this.imageRepository = imageRepository;
+        this.blobReferenceCounter = blobReferenceCounter;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), threadFactory(environment),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Scaling is CPU-bound, so virtual workers are still capped at image.processing.workers.
+    private static ThreadFactory threadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Thread.ofVirtual().name("thumbnail-", 1).factory();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Schedules derivative generation for an image. Inside a transaction the job is only queued
+     * after commit, so workers never race the row they are about to update.
+     */
+    public void submit(Long imageId, String storageKey) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(imageId, storageKey);
+                }
+            });
+        } else {
+            enqueue(imageId, storageKey);
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    private void enqueue(Long imageId, String storageKey) {
+        Job job = new Job(imageId, storageKey);
+        if (underivable.getIfPresent(storageKey) != null || !inFlight.add(job)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageId, storageKey);
+                } finally {
+                    inFlight.remove(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(job);
+            rejected.incrementAndGet();
+            log.debug("Thumbnail queue full, deferring image {}", imageId);
+        }
+    }
+
+    private void generate(Long imageId, String storageKey) {
+        try {
+            BufferedImage source = readScaledSource(storageKey);
+            if (source == null) {
+                underivable.put(storageKey, Boolean.TRUE);
+                return;
+            }
+            BufferedImage web = scale(source, properties.getWebSize());
+            BufferedImage thumbnail = scale(web, properties.getThumbnailSize());
+            BlobRef webBlob = storeJpeg(web);
+            BlobRef thumbnailBlob = storeJpeg(thumbnail);
+            blobReferenceCounter.register(webBlob);
+            blobReferenceCounter.register(thumbnailBlob);
+            boolean attached = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (imageRepository.attachVariants(imageId, storageKey, thumbnailBlob.getKey(), webBlob.getKey()) == 0) {
+                    return false;
+                }
+                blobReferenceCounter.acquire(thumbnailBlob);
+                blobReferenceCounter.acquire(webBlob);
+                return true;
+            }));
+            if (!attached) {
+                log.debug("Image {} changed while its derivatives were generated", imageId);
+                blobReferenceCounter.purgeIfUnreferenced(webBlob.getKey());
+                blobReferenceCounter.purgeIfUnreferenced(thumbnailBlob.getKey());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate derivatives for image {}", imageId, e);
+        }
+    }
+
+    // Decodes with source subsampling so a huge original never has to be held at full resolution.
+    private BufferedImage readScaledSource(String storageKey) throws IOException {
+        try (InputStream in = blobStore.load(storageKey).getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > properties.getMaxSourcePixels()) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (properties.getWebSize() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Only ever shrinks; the result is opaque RGB so transparent sources get a white background.
+    private static BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private BlobRef storeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return blobStore.store(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Job(Long imageId, String storageKey) {
+    }
+}
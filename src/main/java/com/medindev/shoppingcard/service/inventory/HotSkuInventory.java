@@ -0,0 +1,269 @@
+package com.medindev.shoppingcard.service.inventory;
+
+import com.medindev.shoppingcard.config.InventoryProperties;
+import com.medindev.shoppingcard.dto.ReservationDto;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ProductNotFoundException;
+import com.medindev.shoppingcard.exception.ReservationStateException;
+import com.medindev.shoppingcard.model.ReservationStatus;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.service.product.ProductCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Flash-sale mode: a product's reservations are served from {@link StripedStock} counters and held
+ * in memory, so a reservation costs a compare-and-set instead of a row lock.
+ * <p>
+ * The counters only hold stock leased from {@code product.inventory}: when they run short, a slice
+ * of up to {@code inventory.hot-sku.lease-size} units is taken from the row with a conditional
+ * decrement, the same one a database reservation uses. The row therefore always holds the stock no
+ * instance has leased, and each instance can only sell what it took out of it, so any number of
+ * instances, hot or not, can serve the same product without overselling. Every
+ * {@code inventory.hot-sku.flush-interval} units above one slice, such as released holds, go back
+ * to the row; all of them go back when the mode is disabled and on shutdown.
+ * <p>
+ * Holds made in this mode are not persisted. On a crash they are lost, and the units leased by
+ * that instance stay out of the row, at most one slice plus its open holds, until a stock count
+ * sets the stock again. Mode switches are made by {@link InventoryService} under
+ * {@link #modeLock(Long)}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class HotSkuInventory {
+
+    static final String ID_PREFIX = "hot-";
+    private static final int LOCK_STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCache productCache;
+    private final InventoryProperties properties;
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] modeLocks = new ReentrantReadWriteLock[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            modeLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Guards the product's mode: anything that reads or moves its stock holds the read lock, so a
+     * switch, which takes the write lock, never sees units in flight between the database and memory.
+     */
+    ReadWriteLock modeLock(Long productId) {
+        return modeLocks[Math.floorMod(productId.hashCode(), LOCK_STRIPES)];
+    }
+
+    boolean isHot(Long productId) {
+        return stocks.containsKey(productId);
+    }
+
+    boolean owns(String reservationId) {
+        return reservationId.startsWith(ID_PREFIX);
+    }
+
+    /** Units leased here plus those still in the row; slices leased by other instances are not counted. */
+    int available(Long productId) {
+        return stocks.get(productId).total() + inventoryInRow(productId);
+    }
+
+    void enable(Long productId) {
+        if (isHot(productId)) {
+            return;
+        }
+        inventoryInRow(productId);
+        stocks.put(productId, new StripedStock(productId, properties.getHotSku().getStripes()));
+        log.info("Product {} switched to in-memory stock", productId);
+    }
+
+    void disable(Long productId) {
+        StripedStock stock = stocks.get(productId);
+        if (stock != null) {
+            giveBack(stock, stock.drain());
+            stocks.remove(productId);
+            log.info("Product {} switched back to database stock", productId);
+        }
+    }
+
+    ReservationDto reserve(Long productId, int quantity, Instant expiresAt) {
+        take(productId, quantity);
+        Hold hold = new Hold(ID_PREFIX + UUID.randomUUID(), productId, quantity, expiresAt);
+        holds.put(hold.id(), hold);
+        return hold.toDto(ReservationStatus.HELD);
+    }
+
+    ReservationDto commit(String reservationId) {
+        Hold hold = take(reservationId);
+        if (!hold.expiresAt().isAfter(Instant.now())) {
+            restock(hold);
+            throw new ReservationStateException("Reservation " + reservationId + " has expired");
+        }
+        return hold.toDto(ReservationStatus.COMMITTED);
+    }
+
+    ReservationDto release(String reservationId) {
+        Hold hold = take(reservationId);
+        restock(hold);
+        return hold.toDto(ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Takes units without a hold, leasing more from the row when the counters run short; the caller
+     * has checked that the product is hot.
+     */
+    void take(Long productId, int quantity) {
+        StripedStock stock = stocks.get(productId);
+        while (!stock.tryTake(quantity)) {
+            if (!lease(stock, quantity)) {
+                throw new InsufficientStockException("Not enough stock for product " + productId);
+            }
+        }
+    }
+
+    /** Puts units back into the counters; the caller has checked that the product is hot. */
+    void put(Long productId, int quantity) {
+        stocks.get(productId).put(quantity);
+    }
+
+    /**
+     * Returns every leased unit to the row, so the row holds all of this instance's stock for an
+     * absolute set; the caller has checked that the product is hot and holds its mode lock exclusively.
+     */
+    void returnLease(Long productId) {
+        StripedStock stock = stocks.get(productId);
+        giveBack(stock, stock.drain());
+    }
+
+    int expire(Instant now) {
+        int expired = 0;
+        for (Hold hold : holds.values()) {
+            if (!hold.expiresAt().isAfter(now) && holds.remove(hold.id(), hold)) {
+                restock(hold);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /** Returns the units above one slice, so released and expired holds become available to other instances. */
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-interval:PT1S}")
+    public void returnSurplus() {
+        int keep = properties.getHotSku().getLeaseSize();
+        stocks.keySet().forEach(productId -> returnLeased(productId, keep));
+    }
+
+    @PreDestroy
+    public void returnAll() {
+        stocks.keySet().forEach(productId -> returnLeased(productId, 0));
+    }
+
+    private void returnLeased(Long productId, int keep) {
+        Lock lock = modeLock(productId).readLock();
+        lock.lock();
+        try {
+            StripedStock stock = stocks.get(productId);
+            if (stock != null) {
+                giveBack(stock, stock.takeAbove(keep));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not return leased stock of product {}; retrying on the next run", productId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a slice from the row into the counters: as much as {@code lease-size}, at least
+     * {@code quantity}. Returns false if the row cannot cover {@code quantity}.
+     */
+    private boolean lease(StripedStock stock, int quantity) {
+        Long productId = stock.productId();
+        int wanted = Math.max(quantity, properties.getHotSku().getLeaseSize());
+        while (true) {
+            Integer leased = transactionTemplate.execute(status -> {
+                int slice = Math.min(inventoryInRow(productId), wanted);
+                if (slice < quantity) {
+                    return 0;
+                }
+                // Null when another writer moved the row between the read and the decrement; read it again.
+                return productRepository.decrementInventory(productId, slice) > 0 ? slice : null;
+            });
+            if (leased != null) {
+                if (leased == 0) {
+                    return false;
+                }
+                stock.put(leased);
+                productCache.invalidateStock(productId);
+                return true;
+            }
+        }
+    }
+
+    /** Adds units taken from the counters back to the row, or to the counters if that fails. */
+    private void giveBack(StripedStock stock, int quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.adjustInventory(stock.productId(), quantity));
+        } catch (RuntimeException e) {
+            stock.put(quantity);
+            throw e;
+        }
+        productCache.invalidateStock(stock.productId());
+    }
+
+    private int inventoryInRow(Long productId) {
+        return productRepository.findInventoryById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+    }
+
+    private Hold take(String reservationId) {
+        Hold hold = holds.remove(reservationId);
+        if (hold == null) {
+            throw new ReservationStateException("Reservation " + reservationId + " is not held");
+        }
+        return hold;
+    }
+
+    private void restock(Hold hold) {
+        Lock lock = modeLock(hold.productId()).readLock();
+        lock.lock();
+        try {
+            StripedStock stock = stocks.get(hold.productId());
+            if (stock != null) {
+                stock.put(hold.quantity());
+            } else {
+                // The product left hot mode while the hold was open; its stock is back in the database.
+                transactionTemplate.executeWithoutResult(status ->
+                        productRepository.adjustInventory(hold.productId(), hold.quantity()));
+                productCache.invalidateStock(hold.productId());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Hold(String id, Long productId, int quantity, Instant expiresAt) {
+        ReservationDto toDto(ReservationStatus status) {
+            return new ReservationDto(id, productId, quantity, status, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.medindev.shoppingcard.service.inventory;
+
+import com.medindev.shoppingcard.dto.ReservationDto;
+
+import java.time.Duration;
+
+public interface IInventoryService {
+    ReservationDto reserve(Long productId, int quantity, Duration ttl);
+    ReservationDto commit(String reservationId);
+    ReservationDto release(String reservationId);
+    void adjust(Long productId, int delta);
+    void set(Long productId, Integer expected, int inventory);
+    boolean isHotSku(Long productId);
+    int getAvailable(Long productId);
+    void enableHotSku(Long productId);
+    void disableHotSku(Long productId);
+}
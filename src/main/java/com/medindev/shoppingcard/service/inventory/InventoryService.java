@@ -0,0 +1,308 @@
+package com.medindev.shoppingcard.service.inventory;
+
+import com.medindev.shoppingcard.config.InventoryProperties;
+import com.medindev.shoppingcard.dto.ReservationDto;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ProductNotFoundException;
+import com.medindev.shoppingcard.exception.ReservationStateException;
+import com.medindev.shoppingcard.exception.ResourceNotFoundException;
+import com.medindev.shoppingcard.exception.StockMismatchException;
+import com.medindev.shoppingcard.model.InventoryReservation;
+import com.medindev.shoppingcard.model.ReservationStatus;
+import com.medindev.shoppingcard.repository.InventoryReservationRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.service.product.ProductCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Reserve, commit and release stock without lost updates.
+ * <p>
+ * A reservation takes its units immediately with a conditional
+ * {@code UPDATE ... SET inventory = inventory - ? WHERE inventory >= ?}, so concurrent checkouts
+ * can never oversell, and records a hold that expires after a TTL. Committing keeps the units;
+ * releasing or expiring returns them. Each hold changes state through a conditional update, so it
+ * is settled exactly once even when a release races the expiry sweep. Reservations of products
+ * switched to hot-SKU mode are served by {@link HotSkuInventory} instead, from slices it leases
+ * from the same row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService implements IInventoryService {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final HotSkuInventory hotSkuInventory;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryProperties properties;
+
+    @Override
+    public ReservationDto reserve(Long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Instant expiresAt = Instant.now().plus(resolveTtl(ttl));
+        Lock lock = hotSkuInventory.modeLock(productId).readLock();
+        lock.lock();
+        try {
+            if (hotSkuInventory.isHot(productId)) {
+                return hotSkuInventory.reserve(productId, quantity, expiresAt);
+            }
+            ReservationDto reservation = transactionTemplate.execute(status -> {
+                if (productRepository.decrementInventory(productId, quantity) == 0) {
+                    if (!productRepository.existsById(productId)) {
+                        throw new ProductNotFoundException("Product not found with id: " + productId);
+                    }
+                    throw new InsufficientStockException("Not enough stock for product " + productId);
+                }
+                return ReservationDto.from(reservationRepository.save(
+                        new InventoryReservation(UUID.randomUUID().toString(), productId, quantity, expiresAt)));
+            });
+            productCache.invalidateStock(productId);
+            return reservation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ReservationDto commit(String reservationId) {
+        if (hotSkuInventory.owns(reservationId)) {
+            return hotSkuInventory.commit(reservationId);
+        }
+        return transactionTemplate.execute(status -> {
+            int committed = reservationRepository.transitionIfLive(reservationId, ReservationStatus.HELD,
+                    ReservationStatus.COMMITTED, Instant.now());
+            InventoryReservation reservation = findReservation(reservationId);
+            if (committed == 0) {
+                throw notHeld(reservation);
+            }
+            return ReservationDto.from(reservation);
+        });
+    }
+
+    @Override
+    public ReservationDto release(String reservationId) {
+        if (hotSkuInventory.owns(reservationId)) {
+            return hotSkuInventory.release(reservationId);
+        }
+        InventoryReservation reservation = findReservation(reservationId);
+        if (!returnStock(reservation, ReservationStatus.RELEASED)) {
+            throw notHeld(findReservation(reservationId));
+        }
+        return new ReservationDto(reservation.getId(), reservation.getProductId(), reservation.getQuantity(),
+                ReservationStatus.RELEASED, reservation.getExpiresAt());
+    }
+
+    /**
+     * Adds or removes units outside any reservation, such as a restock or a stock correction. A removal
+     * is conditional like a reservation, so it fails rather than take the stock below zero. Added units
+     * go to the row even for a hot SKU, where every instance can lease them.
+     */
+    @Override
+    public void adjust(Long productId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        Lock lock = hotSkuInventory.modeLock(productId).readLock();
+        lock.lock();
+        try {
+            if (delta < 0 && hotSkuInventory.isHot(productId)) {
+                hotSkuInventory.take(productId, -delta);
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = delta > 0 ? productRepository.adjustInventory(productId, delta)
+                        : productRepository.decrementInventory(productId, -delta);
+                if (updated == 0) {
+                    if (!productRepository.existsById(productId)) {
+                        throw new ProductNotFoundException("Product not found with id: " + productId);
+                    }
+                    throw new InsufficientStockException("Not enough stock for product " + productId);
+                }
+            });
+            productCache.invalidateStock(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the stock outright, such as after a stock count. With {@code expected}, only if the stock
+     * still is that, so sales made since the count are not overwritten; without, unconditionally, for
+     * feeds that own the stock figure. A hot SKU first returns its leased units to the row under the
+     * exclusive mode lock, so the row holds all of this instance's stock while it is compared and set.
+     * Slices other instances have leased are not part of the row.
+     */
+    @Override
+    public void set(Long productId, Integer expected, int inventory) {
+        if (inventory < 0) {
+            throw new IllegalArgumentException("Inventory must not be negative");
+        }
+        Lock lock = hotSkuInventory.modeLock(productId).writeLock();
+        lock.lock();
+        try {
+            if (hotSkuInventory.isHot(productId)) {
+                hotSkuInventory.returnLease(productId);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = expected == null ? productRepository.overwriteInventory(productId, inventory)
+                        : productRepository.setInventory(productId, expected, inventory);
+                if (updated == 0) {
+                    int current = productRepository.findInventoryById(productId)
+                            .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+                    throw mismatch(productId, expected, current);
+                }
+            });
+            productCache.invalidateStock(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static StockMismatchException mismatch(Long productId, Integer expected, int current) {
+        return new StockMismatchException("Stock of product " + productId + " is " + current + ", not the expected "
+                + expected);
+    }
+
+    @Override
+    public boolean isHotSku(Long productId) {
+        return hotSkuInventory.isHot(productId);
+    }
+
+    @Override
+    public int getAvailable(Long productId) {
+        Lock lock = hotSkuInventory.modeLock(productId).readLock();
+        lock.lock();
+        try {
+            if (hotSkuInventory.isHot(productId)) {
+                return hotSkuInventory.available(productId);
+            }
+            return productRepository.findInventoryById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enableHotSku(Long productId) {
+        Lock lock = hotSkuInventory.modeLock(productId).writeLock();
+        lock.lock();
+        try {
+            hotSkuInventory.enable(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void disableHotSku(Long productId) {
+        Lock lock = hotSkuInventory.modeLock(productId).writeLock();
+        lock.lock();
+        try {
+            hotSkuInventory.disable(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableConfiguredHotSkus() {
+        for (Long productId : properties.getHotSku().getProducts()) {
+            try {
+                enableHotSku(productId);
+            } catch (ResourceNotFoundException e) {
+                log.warn("Configured hot SKU {} does not exist", productId);
+            }
+        }
+    }
+
+    /** Returns the stock of holds whose TTL has passed. */
+    @Scheduled(fixedDelayString = "${inventory.sweep-interval:PT30S}")
+    public void expireReservations() {
+        Instant now = Instant.now();
+        int expired = hotSkuInventory.expire(now);
+        List<InventoryReservation> batch;
+        do {
+            batch = reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+                    ReservationStatus.HELD, now, Limit.of(SWEEP_BATCH_SIZE));
+            for (InventoryReservation reservation : batch) {
+                if (returnStock(reservation, ReservationStatus.EXPIRED)) {
+                    expired++;
+                }
+            }
+        } while (batch.size() == SWEEP_BATCH_SIZE);
+        if (expired > 0) {
+            log.info("Expired {} inventory reservations", expired);
+        }
+    }
+
+    /**
+     * Moves a held reservation to {@code outcome} and puts its units back, in memory when the
+     * product has since gone hot. Returns false if the reservation was no longer held.
+     */
+    private boolean returnStock(InventoryReservation reservation, ReservationStatus outcome) {
+        Long productId = reservation.getProductId();
+        Lock lock = hotSkuInventory.modeLock(productId).readLock();
+        lock.lock();
+        try {
+            boolean hot = hotSkuInventory.isHot(productId);
+            Boolean returned = transactionTemplate.execute(status -> {
+                if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD, outcome) == 0) {
+                    return false;
+                }
+                if (!hot) {
+                    productRepository.adjustInventory(productId, reservation.getQuantity());
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(returned)) {
+                if (hot) {
+                    hotSkuInventory.put(productId, reservation.getQuantity());
+                } else {
+                    productCache.invalidateStock(productId);
+                }
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private InventoryReservation findReservation(String reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
+    }
+
+    private static ReservationStateException notHeld(InventoryReservation reservation) {
+        String state = reservation.getStatus() == ReservationStatus.HELD
+                ? "expired" : reservation.getStatus().name().toLowerCase(Locale.ROOT);
+        return new ReservationStateException("Reservation " + reservation.getId() + " is " + state);
+    }
+
+    private Duration resolveTtl(Duration ttl) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            return properties.getReservationTtl();
+        }
+        return ttl.compareTo(properties.getMaxReservationTtl()) > 0 ? properties.getMaxReservationTtl() : ttl;
+    }
+}
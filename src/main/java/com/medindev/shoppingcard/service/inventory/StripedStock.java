@@ -0,0 +1,90 @@
+package com.medindev.shoppingcard.service.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock of one product spread over several counters so concurrent takers rarely CAS the same word.
+ * <p>
+ * A stripe is only ever decremented by a compare-and-set that keeps it non-negative, so the
+ * total can never drop below zero. When no single stripe can cover a request, the stripes are
+ * drained and rebalanced under the monitor, which also serializes returns of surplus units.
+ */
+final class StripedStock {
+
+    private final Long productId;
+    private final AtomicInteger[] stripes;
+
+    StripedStock(Long productId, int stripeCount) {
+        this.productId = productId;
+        this.stripes = new AtomicInteger[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicInteger();
+        }
+    }
+
+    Long productId() {
+        return productId;
+    }
+
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            AtomicInteger stripe = stripes[(start + i) % stripes.length];
+            int available = stripe.get();
+            while (available >= quantity) {
+                if (stripe.compareAndSet(available, available - quantity)) {
+                    return true;
+                }
+                available = stripe.get();
+            }
+        }
+        return takeRebalancing(quantity);
+    }
+
+    void put(int quantity) {
+        stripes[ThreadLocalRandom.current().nextInt(stripes.length)].addAndGet(quantity);
+    }
+
+    int total() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.get();
+        }
+        return total;
+    }
+
+    /** Takes every unit above {@code keep} and returns how many that was. */
+    synchronized int takeAbove(int keep) {
+        int total = drainStripes();
+        int taken = Math.max(0, total - keep);
+        spread(total - taken);
+        return taken;
+    }
+
+    /** Takes every unit and returns how many that was. */
+    synchronized int drain() {
+        return drainStripes();
+    }
+
+    private synchronized boolean takeRebalancing(int quantity) {
+        int total = drainStripes();
+        boolean taken = total >= quantity;
+        spread(taken ? total - quantity : total);
+        return taken;
+    }
+
+    private int drainStripes() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.getAndSet(0);
+        }
+        return total;
+    }
+
+    private void spread(int total) {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i].addAndGet(total / stripes.length + (i < total % stripes.length ? 1 : 0));
+        }
+    }
+}
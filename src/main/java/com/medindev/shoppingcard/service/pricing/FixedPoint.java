@@ -0,0 +1,93 @@
+package com.medindev.shoppingcard.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on {@code long} values carrying an implied number of decimal digits.
+ * <p>
+ * Every operation produces exactly what the equivalent {@link BigDecimal} computation would, or
+ * throws {@link ArithmeticException} when the result does not fit in a {@code long}. Products that
+ * overflow the 64-bit intermediate fall back to {@code BigDecimal}, so only the rare huge amount
+ * pays for the allocation.
+ */
+public final class FixedPoint {
+
+    /** Digits carried by rates (discounts, tax): {@code 0.2} is stored as {@code 200_000}. */
+    public static final int RATE_DIGITS = 6;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /** Converts {@code value} to a count of 10^-digits units, rounding with {@code mode}. */
+    public static long toFixed(BigDecimal value, int digits, RoundingMode mode) {
+        return value.setScale(digits, mode).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long value, int digits) {
+        return BigDecimal.valueOf(value, digits);
+    }
+
+    /**
+     * Converts a rate to {@link #RATE_DIGITS} fixed point. Rates that need more digits are rejected
+     * rather than rounded, because rounding the rate would change every amount it is applied to.
+     */
+    public static long toRate(BigDecimal rate) {
+        try {
+            return toFixed(rate, RATE_DIGITS, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rates support at most " + RATE_DIGITS + " decimal places: " + rate);
+        }
+    }
+
+    /** {@code amount * rate}, where {@code rate} has {@link #RATE_DIGITS} digits, rounded back to the amount's digits. */
+    public static long applyRate(long amount, long rate, RoundingMode mode) {
+        long product;
+        try {
+            product = Math.multiplyExact(amount, rate);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(rate))
+                    .movePointLeft(RATE_DIGITS).setScale(0, mode).longValueExact();
+        }
+        return divide(product, POWERS_OF_TEN[RATE_DIGITS], mode);
+    }
+
+    /** {@code dividend / divisor} rounded with {@code mode}, for a positive {@code divisor}. */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = dividend < 0 ? -1 : 1;
+        boolean increment = switch (mode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long magnitude = Math.abs(remainder);
+                // Compares |remainder| with divisor / 2 without overflowing.
+                int half = Long.compare(magnitude, divisor - magnitude);
+                if (half != 0) {
+                    yield half > 0;
+                }
+                yield mode == RoundingMode.HALF_UP || (mode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + sign : quotient;
+    }
+}
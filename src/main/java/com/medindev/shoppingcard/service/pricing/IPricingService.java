@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.service.pricing;
+
+import com.medindev.shoppingcard.dto.PriceQuoteDto;
+import com.medindev.shoppingcard.request.QuoteLine;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface IPricingService {
+    long toMinorUnits(BigDecimal amount);
+    BigDecimal fromMinorUnits(long amount);
+    PriceQuoteDto quote(List<QuoteLine> lines, BigDecimal discountRate);
+}
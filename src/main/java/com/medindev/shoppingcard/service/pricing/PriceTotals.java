@@ -0,0 +1,12 @@
+package com.medindev.shoppingcard.service.pricing;
+
+/**
+ * Totals of one pricing pass, in minor units.
+ *
+ * @param subtotal sum of the line totals before discount
+ * @param discount sum of the per-line discounts
+ * @param tax      tax on the discounted subtotal
+ * @param total    {@code subtotal - discount + tax}
+ */
+public record PriceTotals(long subtotal, long discount, long tax, long total) {
+}
@@ -0,0 +1,50 @@
+package com.medindev.shoppingcard.service.pricing;
+
+import java.math.RoundingMode;
+
+/**
+ * Prices order lines in fixed-point minor units (cents for a two-digit currency).
+ * <p>
+ * Line totals are exact; each line's discount is rounded on its own, and tax is computed once on
+ * the discounted subtotal. All sums are overflow-checked. The engine is immutable and holds no
+ * per-call state, so one instance can be shared.
+ */
+public final class PricingEngine {
+
+    private final RoundingMode roundingMode;
+
+    public PricingEngine(RoundingMode roundingMode) {
+        this.roundingMode = roundingMode;
+    }
+
+    public long lineTotal(long unitPrice, int quantity) {
+        return Math.multiplyExact(unitPrice, (long) quantity);
+    }
+
+    /**
+     * Reprices {@code count} lines in one pass.
+     *
+     * @param unitPrices   unit prices in minor units
+     * @param quantities   quantity of each line
+     * @param discountRate discount as a {@link FixedPoint#RATE_DIGITS}-digit rate, applied per line
+     * @param taxRate      tax as a {@link FixedPoint#RATE_DIGITS}-digit rate, applied to the discounted subtotal
+     * @param lineNets     if not null, receives each line's total after discount
+     */
+    public PriceTotals price(long[] unitPrices, int[] quantities, int count, long discountRate, long taxRate,
+                             long[] lineNets) {
+        long subtotal = 0;
+        long discount = 0;
+        for (int i = 0; i < count; i++) {
+            long line = lineTotal(unitPrices[i], quantities[i]);
+            long lineDiscount = discountRate == 0 ? 0 : FixedPoint.applyRate(line, discountRate, roundingMode);
+            subtotal = Math.addExact(subtotal, line);
+            discount = Math.addExact(discount, lineDiscount);
+            if (lineNets != null) {
+                lineNets[i] = line - lineDiscount;
+            }
+        }
+        long net = Math.subtractExact(subtotal, discount);
+        long tax = taxRate == 0 ? 0 : FixedPoint.applyRate(net, taxRate, roundingMode);
+        return new PriceTotals(subtotal, discount, tax, Math.addExact(net, tax));
+    }
+}
@@ -0,0 +1,79 @@
+package com.medindev.shoppingcard.service.pricing;
+
+import com.medindev.shoppingcard.config.PricingProperties;
+import com.medindev.shoppingcard.dto.PriceQuoteDto;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.request.QuoteLine;
+import com.medindev.shoppingcard.service.product.IProductService;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * API boundary of the {@link PricingEngine}: converts {@code BigDecimal} amounts and rates to fixed
+ * point on the way in and back on the way out.
+ * <p>
+ * A quote converts each catalog price once, straight into the engine's input arrays; the totals
+ * become {@code BigDecimal} only in the response.
+ */
+@Service
+public class PricingService implements IPricingService {
+
+    private final PricingProperties properties;
+    private final IProductService productService;
+    private final PricingEngine engine;
+    private final long taxRate;
+
+    public PricingService(PricingProperties properties, IProductService productService) {
+        this.properties = properties;
+        this.productService = productService;
+        this.engine = new PricingEngine(properties.getRoundingMode());
+        this.taxRate = FixedPoint.toRate(properties.getTaxRate());
+    }
+
+    @Override
+    public long toMinorUnits(BigDecimal amount) {
+        return FixedPoint.toFixed(amount, properties.getFractionDigits(), properties.getRoundingMode());
+    }
+
+    @Override
+    public BigDecimal fromMinorUnits(long amount) {
+        return FixedPoint.toDecimal(amount, properties.getFractionDigits());
+    }
+
+    @Override
+    public PriceQuoteDto quote(List<QuoteLine> lines, BigDecimal discountRate) {
+        long discount = discountRate == null ? 0 : FixedPoint.toRate(discountRate);
+        if (discount < 0 || discount > FixedPoint.toRate(BigDecimal.ONE)) {
+            throw new IllegalArgumentException("Discount rate must be between 0 and 1");
+        }
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("A quote needs at least one line");
+        }
+        if (lines.size() > properties.getMaxQuoteLines()) {
+            throw new IllegalArgumentException("A quote can hold at most " + properties.getMaxQuoteLines() + " lines");
+        }
+        int count = lines.size();
+        long[] unitPrices = new long[count];
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            QuoteLine line = lines.get(i);
+            if (line.getProductId() == null) {
+                throw new IllegalArgumentException("productId is required");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            ProductDto product = productService.getProductDtoById(line.getProductId());
+            if (product.getPrice() == null) {
+                throw new IllegalArgumentException("Product " + product.getId() + " has no price");
+            }
+            unitPrices[i] = toMinorUnits(product.getPrice());
+            quantities[i] = line.getQuantity();
+        }
+        PriceTotals totals = engine.price(unitPrices, quantities, count, discount, taxRate, null);
+        return new PriceQuoteDto(fromMinorUnits(totals.subtotal()), fromMinorUnits(totals.discount()),
+                fromMinorUnits(totals.tax()), fromMinorUnits(totals.total()));
+    }
+}
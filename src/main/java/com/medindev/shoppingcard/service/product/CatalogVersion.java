@@ -0,0 +1,135 @@
+package com.medindev.shoppingcard.service.product;
+
+import com.medindev.shoppingcard.event.CatalogChangedElsewhereEvent;
+import com.medindev.shoppingcard.event.CatalogWrittenEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation counter for everything the product and category read endpoints return, shared by all
+ * instances through the {@code catalog_version} row. A client holding the current generation has
+ * nothing newer to fetch.
+ * <p>
+ * {@link #advance()} is called once a write has committed and bumps the row in a transaction of its
+ * own, so the new generation is never visible before the data it covers and no writer holds the row
+ * lock for longer than that one statement. Stock changes, which every reservation makes, only mark
+ * the generation for a bump every {@code catalog.version.stock-interval}: bumping the row for each
+ * would serialize all checkouts on it and change the tag on every add-to-cart. Until then, a
+ * revalidating client may keep a copy showing the previous stock. Each instance keeps the last generation it knows in
+ * memory, which is what makes a 304 free of SQL; it learns of other instances' writes by polling
+ * the row every {@code catalog.version.refresh-interval}, and publishes a
+ * {@link CatalogChangedElsewhereEvent} so its own derived state can be dropped. Until that poll, a
+ * client revalidating against this instance may still be told its copy of the previous generation
+ * is current.
+ * <p>
+ * Every write, local or seen through the poll, is announced as a {@link CatalogWrittenEvent} before
+ * anything derived from the catalog is dropped, so the reads that rebuild it under the new generation
+ * can be kept off lagging replicas.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+public class CatalogVersion {
+
+    private static final String SELECT_SQL = "select generation from catalog_version where id = 1";
+    private static final String BUMP_SQL = "update catalog_version set generation = generation + 1 where id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean bumpPending = new AtomicBoolean();
+    private final AtomicBoolean stockPending = new AtomicBoolean();
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        generation.set(jdbcTemplate.queryForObject(SELECT_SQL, Long.class));
+    }
+
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * Announces a catalog write; call after it has committed and before dropping anything derived
+     * from it. {@link #advance()} does so itself.
+     */
+    public void recordWrite() {
+        eventPublisher.publishEvent(new CatalogWrittenEvent(System.currentTimeMillis(), false));
+    }
+
+    /** Announces a committed stock change, like {@link #recordWrite()}, and marks it for the next bump. */
+    public void recordStockWrite() {
+        eventPublisher.publishEvent(new CatalogWrittenEvent(System.currentTimeMillis(), true));
+        stockPending.set(true);
+    }
+
+    /** Moves every instance to a new generation; call after the change has committed. */
+    public void advance() {
+        recordWrite();
+        bump();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.stock-interval:PT30S}")
+    @PreDestroy
+    public void publishStockChanges() {
+        if (stockPending.getAndSet(false)) {
+            bump();
+        }
+    }
+
+    private void bump() {
+        try {
+            Long next = requiresNew.execute(status -> {
+                jdbcTemplate.update(BUMP_SQL);
+                return jdbcTemplate.queryForObject(SELECT_SQL, Long.class);
+            });
+            observe(next, 1);
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next refresh retries the bump.
+            bumpPending.set(true);
+            log.warn("Could not advance the catalog version; retrying on the next refresh", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.refresh-interval:PT1S}")
+    public void refresh() {
+        if (bumpPending.getAndSet(false)) {
+            advance();
+            return;
+        }
+        long shared = jdbcTemplate.queryForObject(SELECT_SQL, Long.class);
+        if (shared > generation.get()) {
+            recordWrite();
+        }
+        observe(shared, 0);
+    }
+
+    /** Opaque tag for the current generation, unquoted. */
+    public String tag() {
+        return Long.toString(generation.get(), 36);
+    }
+
+    // Anything beyond this instance's own bumps was written elsewhere.
+    private void observe(long shared, int ownBumps) {
+        long previous = generation.getAndAccumulate(shared, Math::max);
+        if (shared > previous + ownBumps) {
+            eventPublisher.publishEvent(new CatalogChangedElsewhereEvent(shared));
+        }
+    }
+}
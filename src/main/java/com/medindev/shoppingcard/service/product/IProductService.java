@@ -1,23 +1,26 @@
 package com.medindev.shoppingcard.service.product;
 
+import com.medindev.shoppingcard.dto.CacheStatsDto;
+import com.medindev.shoppingcard.dto.CursorPage;
+import com.medindev.shoppingcard.dto.ProductDto;
 import com.medindev.shoppingcard.model.Product;
 import com.medindev.shoppingcard.request.AddProductRequest;
 import com.medindev.shoppingcard.request.ProductUpdateRequest;
 
-import java.util.List;
-
 public interface IProductService {
    Product addProduct(AddProductRequest product);
    Product getProductById(Long id);
+   ProductDto getProductDtoById(Long id);
+   CacheStatsDto getProductCacheStats();
    Product updateProduct(ProductUpdateRequest product, Long ProductId);
    void deleteProductById(Long id);
-   List<Product> getAllProducts();
-   List<Product> getProductsByCategory(String category);
-   List<Product> getProductsByBrand(String brand);
-   List<Product> getProductsByCategoryAndBrand(String category, String brand);
-   List<Product> getProductsByName(String name);
-   List<Product> getProductsByBrandAndName(String name, String band);
    Long CountProductsByBrandAndName(String brand, String name);
+   CursorPage<ProductDto> getProducts(String cursor, Integer size);
+   CursorPage<ProductDto> getProductsByCategory(String category, String cursor, Integer size);
+   CursorPage<ProductDto> getProductsByBrand(String brand, String cursor, Integer size);
+   CursorPage<ProductDto> getProductsByCategoryAndBrand(String category, String brand, String cursor, Integer size);
+   CursorPage<ProductDto> getProductsByName(String name, String cursor, Integer size);
+   CursorPage<ProductDto> getProductsByBrandAndName(String brand, String name, String cursor, Integer size);
 
 
 }
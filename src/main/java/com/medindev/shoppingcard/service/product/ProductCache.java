@@ -0,0 +1,118 @@
+package com.medindev.shoppingcard.service.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.medindev.shoppingcard.config.ProductCacheProperties;
+import com.medindev.shoppingcard.dto.CacheStatsDto;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.event.CatalogChangedElsewhereEvent;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
+import com.medindev.shoppingcard.jdbc.CatalogReadScope;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of product detail views, bounded by size (W-TinyLFU admission) and age.
+ * <p>
+ * Only immutable {@link ProductDto} snapshots are stored, never entities. Entries are invalidated
+ * after the writing transaction commits; an invalidation that races a load of the same key waits
+ * for that load and removes its result, so a pre-commit read cannot stay cached.
+ * <p>
+ * Every write that changes a product view passes through here, so each invalidation also advances
+ * the {@link CatalogVersion} behind the read endpoints' ETags, having first recorded the write so the
+ * loads that refill an entry skip lagging replicas. Stock-only changes come with every reservation;
+ * they drop the view at once but leave the generation to {@link CatalogVersion#recordStockWrite()},
+ * which coalesces them. Loads run in a {@link CatalogReadScope#refill refill} scope, so they are the
+ * reads kept off lagging replicas. The cache is per instance: writes made by other instances clear it as a whole once
+ * the shared generation shows them.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<Long, ProductDto> products;
+    private final CatalogVersion catalogVersion;
+    private final CatalogReadScope catalogReadScope;
+
+    public ProductCache(ProductCacheProperties properties, CatalogVersion catalogVersion,
+                        CatalogReadScope catalogReadScope) {
+        this.enabled = properties.isEnabled();
+        this.catalogVersion = catalogVersion;
+        this.catalogReadScope = catalogReadScope;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public ProductDto get(Long id, Function<Long, ProductDto> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return products.get(id, key -> catalogReadScope.refill(() -> loader.apply(key)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        catalogVersion.recordWrite();
+        products.invalidateAll(event.getProductIds());
+        catalogVersion.advance();
+    }
+
+    /** Drops one product's view after a change to its stock only; inside a transaction, once it has committed. */
+    public void invalidateStock(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateStock(id);
+                }
+            });
+            return;
+        }
+        catalogVersion.recordStockWrite();
+        products.invalidate(id);
+    }
+
+    // Another instance wrote; which of the cached views it touched is unknown.
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        products.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        catalogVersion.recordWrite();
+        products.invalidateAll();
+        catalogVersion.advance();
+    }
+
+    // Publishes the same hit/miss/eviction statistics as cache.* meters tagged cache=product.
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "product");
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = products.stats();
+        return new CacheStatsDto(
+                products.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.loadFailureCount(),
+                TimeUnit.NANOSECONDS.toMicros((long) stats.averageLoadPenalty()) / 1000.0
+        );
+    }
+}
@@ -1,39 +1,56 @@
 package com.medindev.shoppingcard.service.product;
 
+import com.medindev.shoppingcard.config.PaginationProperties;
+import com.medindev.shoppingcard.dto.CacheStatsDto;
+import com.medindev.shoppingcard.dto.CursorPage;
+import com.medindev.shoppingcard.dto.ImageDto;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
 import com.medindev.shoppingcard.exception.ProductNotFoundException;
 import com.medindev.shoppingcard.model.Category;
 import com.medindev.shoppingcard.model.Product;
-import com.medindev.shoppingcard.repository.CategoryRepository;
 import com.medindev.shoppingcard.repository.ProductRepository;
 import com.medindev.shoppingcard.request.AddProductRequest;
 import com.medindev.shoppingcard.request.ProductUpdateRequest;
+import com.medindev.shoppingcard.service.bulk.IProductBulkService;
+import com.medindev.shoppingcard.service.category.CategoryResolver;
+import com.medindev.shoppingcard.service.image.ImageService;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService implements  IProductService {
 
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryResolver categoryResolver;
+    private final PaginationProperties paginationProperties;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IProductBulkService productBulkService;
+    private final IInventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Override
     public Product addProduct(AddProductRequest request) {
-        // Check if the category exists
-        // if Yes, set the category to the product
-        // if No, throw an exception
-        Category category = Optional.ofNullable(categoryRepository.findByName(request.getCategory().getName()))
-                .orElseGet(() -> {
-                    Category newCategory = new Category();
-                    newCategory.setName(request.getCategory().getName());
-                    return categoryRepository.save(newCategory);
-                    });
-        request.setCategory(category);
-        return productRepository.save(createProduct(request, category));
+        // Resolve the category by name, creating it on first use, before the product's transaction opens
+        Long categoryId = categoryResolver.resolveId(request.getCategory().getName());
+        return transactionTemplate.execute(status -> {
+            Category category = categoryResolver.reference(categoryId);
+            request.setCategory(category);
+            Product product = productRepository.save(createProduct(request, category));
+            eventPublisher.publishEvent(ProductsChangedEvent.of(product.getId()));
+            return product;
+        });
 
     }
 
@@ -50,22 +67,43 @@ public class ProductService implements  IProductService {
 
     @Override
     public Product updateProduct(ProductUpdateRequest request, Long ProductId) {
+        validateStockChange(request);
+        Long categoryId = categoryResolver.resolveId(request.getCategory().getName());
+        return transactionTemplate.execute(status -> {
+            // Stock first, as a relative or a conditional change: it takes the hot-SKU mode lock before any
+            // row lock, the same order a reservation uses.
+            if (request.getInventory() != null) {
+                inventoryService.set(ProductId, request.getExpectedInventory(), request.getInventory());
+            } else if (request.getInventoryDelta() != null) {
+                inventoryService.adjust(ProductId, request.getInventoryDelta());
+            }
+            Product product = productRepository.findForUpdateById(ProductId)
+                    .map(existingProduct -> updateExistingProduct(existingProduct, request, categoryId))
+                    .map(productRepository::save)
+                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + ProductId));
+            eventPublisher.publishEvent(ProductsChangedEvent.of(ProductId));
+            return product;
+        });
+    }
 
-        return productRepository.findById(ProductId)
-                .map(existingProduct -> updateExistingProduct(existingProduct, request))
-                .map(productRepository::save)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + ProductId));
+    // A blind absolute stock would overwrite every sale made since the client read it.
+    private static void validateStockChange(ProductUpdateRequest request) {
+        if (request.getInventory() != null && request.getExpectedInventory() == null) {
+            throw new IllegalArgumentException("inventory sets the stock only together with expectedInventory; "
+                    + "use inventoryDelta to add or remove units");
+        }
+        if (request.getInventory() != null && request.getInventoryDelta() != null) {
+            throw new IllegalArgumentException("Use either inventory or inventoryDelta, not both");
+        }
     }
 
-    private Product updateExistingProduct (Product existingProduct, ProductUpdateRequest request) {
+    private Product updateExistingProduct (Product existingProduct, ProductUpdateRequest request, Long categoryId) {
         existingProduct.setName(request.getName());
         existingProduct.setBrand(request.getBrand());
         existingProduct.setPrice(request.getPrice());
-        existingProduct.setInventory(request.getInventory());
         existingProduct.setDescription(request.getDescription());
 
-        Category category = categoryRepository.findByName(request.getCategory().getName());
-        existingProduct.setCategory(category);
+        existingProduct.setCategory(categoryResolver.reference(categoryId));
         return existingProduct;
     }
 
@@ -75,46 +113,94 @@ public class ProductService implements  IProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
     }
 
+    @Override
+    public ProductDto getProductDtoById(Long id) {
+        return productCache.get(id, this::loadProductDto);
+    }
+
+    private ProductDto loadProductDto(Long id) {
+        Product product = productRepository.findWithDetailsById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        List<ImageDto> images = product.getImages().stream().map(ImageService::toDto).toList();
+        return ProductDto.from(product, images);
+    }
 
+    @Override
+    public CacheStatsDto getProductCacheStats() {
+        return productCache.stats();
+    }
 
     @Override
     public void deleteProductById(Long id) {
-        productRepository.findById(id).ifPresentOrElse(productRepository::delete,
-                () -> {throw new ProductNotFoundException("Product not found with id: " + id);});
+        // Goes through the bulk path so the images' blob references are released as well.
+        if (productBulkService.deleteProducts(List.of(id)).getAffected() == 0) {
+            throw new ProductNotFoundException("Product not found with id: " + id);
+        }
     }
 
     @Override
-    public List<Product> getAllProducts() {
-        return (List<Product>) productRepository.findAll();
+    @Transactional(readOnly = true)
+    public Long CountProductsByBrandAndName(String brand, String name) {
+        return productRepository.countByBrandAndName(brand, name);
     }
 
     @Override
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategoryName(category);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProducts(String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) -> productRepository.findPage(afterId, limit));
     }
 
     @Override
-    public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsByCategory(String category, String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) ->
+                productRepository.findPageByCategory(category, afterId, limit));
     }
 
     @Override
-    public List<Product> getProductsByCategoryAndBrand(String category, String brand) {
-        return productRepository.findByCategoryNameAndBrand(category, brand);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsByBrand(String brand, String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) ->
+                productRepository.findPageByBrand(brand, afterId, limit));
     }
 
     @Override
-    public List<Product> getProductsByName(String name) {
-        return productRepository.findByName(name);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsByCategoryAndBrand(String category, String brand, String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) ->
+                productRepository.findPageByCategoryAndBrand(category, brand, afterId, limit));
     }
 
     @Override
-    public List<Product> getProductsByBrandAndName( String brand, String name) {
-        return productRepository.findByBrandAndName(brand, name);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsByName(String name, String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) ->
+                productRepository.findPageByName(name, afterId, limit));
     }
 
     @Override
-    public Long CountProductsByBrandAndName(String brand, String name) {
-        return productRepository.countByBrandAndName(brand, name);
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsByBrandAndName(String brand, String name, String cursor, Integer size) {
+        return page(cursor, size, (afterId, limit) ->
+                productRepository.findPageByBrandAndName(brand, name, afterId, limit));
+    }
+
+    // Fetches one row more than requested to learn whether a next page exists without a COUNT query.
+    private CursorPage<ProductDto> page(String cursor, Integer size, BiFunction<Long, Limit, List<ProductDto>> query) {
+        long afterId = ProductCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        List<ProductDto> products = query.apply(afterId, Limit.of(pageSize + 1));
+        if (products.size() <= pageSize) {
+            return new CursorPage<>(products, products.size(), null);
+        }
+        List<ProductDto> items = products.subList(0, pageSize);
+        return new CursorPage<>(items, pageSize, ProductCursor.encode(items.get(pageSize - 1).getId()));
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return paginationProperties.getDefaultPageSize();
+        }
+        return Math.min(size, paginationProperties.getMaxPageSize());
     }
 }
@@ -0,0 +1,7 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.dto.FacetCounts;
+
+public interface IProductFacetService {
+    FacetCounts getFacets(String category, String brand, String priceRange);
+}
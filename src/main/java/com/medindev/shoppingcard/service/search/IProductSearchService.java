@@ -0,0 +1,10 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.dto.SearchHit;
+
+import java.util.List;
+
+public interface IProductSearchService {
+    List<SearchHit> search(String query, int limit);
+    List<String> suggest(String prefix, int limit);
+}
@@ -0,0 +1,241 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.config.FacetProperties;
+import com.medindev.shoppingcard.dto.FacetCounts;
+import com.medindev.shoppingcard.dto.ProductDto;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a compressed bitmap of product ids per category, brand and price bucket.
+ * <p>
+ * Filtering is a bitmap intersection and every facet count an intersection cardinality, so the
+ * sidebar costs a handful of in-memory operations instead of one aggregate query per value.
+ * Facet values are matched case-insensitively and reported with the spelling first seen.
+ */
+@Slf4j
+@Service
+public class ProductFacetService implements IProductFacetService, ProductIndex {
+
+    private final List<BigDecimal> priceBounds;
+    private final List<String> priceLabels;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Facets facets;
+
+    public ProductFacetService(FacetProperties properties) {
+        this.priceBounds = properties.getPriceBounds().stream().sorted().toList();
+        this.priceLabels = priceLabels(priceBounds);
+        this.facets = new Facets();
+    }
+
+    @Override
+    public FacetCounts getFacets(String category, String brand, String priceRange) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap byCategory = facets.filter(facets.categories, category);
+            RoaringBitmap byBrand = facets.filter(facets.brands, brand);
+            RoaringBitmap byPrice = facets.filter(facets.priceRanges, priceRange);
+            RoaringBitmap matching = RoaringBitmap.and(RoaringBitmap.and(byCategory, byBrand), byPrice);
+            return new FacetCounts(
+                    matching.getLongCardinality(),
+                    count(facets.categories, RoaringBitmap.and(byBrand, byPrice), false),
+                    count(facets.brands, RoaringBitmap.and(byCategory, byPrice), false),
+                    count(facets.priceRanges, RoaringBitmap.and(byCategory, byBrand), true));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        Facets fresh = new Facets();
+        return new Builder() {
+            @Override
+            public void add(ProductDto product) {
+                fresh.add(product);
+            }
+
+            @Override
+            public void publish() {
+                fresh.runOptimize();
+                lock.writeLock().lock();
+                try {
+                    facets = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void upsert(ProductDto product) {
+        lock.writeLock().lock();
+        try {
+            facets.remove(product.getId());
+            facets.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            facets.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> count(Map<String, Facet> facet, RoaringBitmap within, boolean keepOrder) {
+        List<Facet> values = new ArrayList<>(facet.values());
+        Map<Facet, Integer> counts = new HashMap<>();
+        for (Facet value : values) {
+            counts.put(value, RoaringBitmap.andCardinality(value.ids, within));
+        }
+        if (keepOrder) {
+            values.sort((a, b) -> Integer.compare(priceLabels.indexOf(a.label), priceLabels.indexOf(b.label)));
+        } else {
+            values.sort(Comparator.comparing((Facet value) -> counts.get(value)).reversed()
+                    .thenComparing(value -> value.label));
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Facet value : values) {
+            int n = counts.get(value);
+            if (n > 0) {
+                result.put(value.label, n);
+            }
+        }
+        return result;
+    }
+
+    private String priceLabel(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (int i = 0; i < priceBounds.size(); i++) {
+            if (price.compareTo(priceBounds.get(i)) < 0) {
+                return priceLabels.get(i);
+            }
+        }
+        return priceLabels.get(priceBounds.size());
+    }
+
+    private static List<String> priceLabels(List<BigDecimal> bounds) {
+        List<String> labels = new ArrayList<>(bounds.size() + 1);
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : bounds) {
+            labels.add(lower.toPlainString() + "-" + bound.toPlainString());
+            lower = bound;
+        }
+        labels.add(lower.toPlainString() + "+");
+        return labels;
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Facet {
+        final String label;
+        final RoaringBitmap ids = new RoaringBitmap();
+
+        Facet(String label) {
+            this.label = label;
+        }
+    }
+
+    /** The product's facet values as indexed, so an update can clear exactly the bits it set. */
+    private record Entry(String category, String brand, String priceRange) {
+    }
+
+    private final class Facets {
+        final Map<String, Facet> categories = new HashMap<>();
+        final Map<String, Facet> brands = new HashMap<>();
+        final Map<String, Facet> priceRanges = new HashMap<>();
+        final RoaringBitmap all = new RoaringBitmap();
+        final Map<Integer, Entry> entries = new HashMap<>();
+
+        void add(ProductDto product) {
+            int id = bit(product.getId());
+            if (id < 0) {
+                return;
+            }
+            Entry entry = new Entry(product.getCategory(), product.getBrand(), priceLabel(product.getPrice()));
+            set(categories, entry.category(), id);
+            set(brands, entry.brand(), id);
+            set(priceRanges, entry.priceRange(), id);
+            all.add(id);
+            entries.put(id, entry);
+        }
+
+        void remove(Long productId) {
+            int id = bit(productId);
+            Entry entry = id < 0 ? null : entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            clear(categories, entry.category(), id);
+            clear(brands, entry.brand(), id);
+            clear(priceRanges, entry.priceRange(), id);
+            all.remove(id);
+        }
+
+        /** The ids matching {@code value}, or every id when no filter is given. */
+        RoaringBitmap filter(Map<String, Facet> facet, String value) {
+            if (value == null || value.isBlank()) {
+                return all;
+            }
+            Facet match = facet.get(key(value));
+            return match == null ? new RoaringBitmap() : match.ids;
+        }
+
+        void runOptimize() {
+            categories.values().forEach(facet -> facet.ids.runOptimize());
+            brands.values().forEach(facet -> facet.ids.runOptimize());
+            priceRanges.values().forEach(facet -> facet.ids.runOptimize());
+            all.runOptimize();
+        }
+
+        private void set(Map<String, Facet> facet, String value, int id) {
+            if (value != null) {
+                facet.computeIfAbsent(key(value), k -> new Facet(value)).ids.add(id);
+            }
+        }
+
+        private void clear(Map<String, Facet> facet, String value, int id) {
+            if (value == null) {
+                return;
+            }
+            Facet match = facet.get(key(value));
+            if (match != null) {
+                match.ids.remove(id);
+                if (match.ids.isEmpty()) {
+                    facet.remove(key(value));
+                }
+            }
+        }
+
+        /** Roaring bitmaps hold 32-bit values; ids beyond that range are left out of the facets. */
+        private int bit(Long productId) {
+            if (productId == null || productId < 0 || productId > Integer.MAX_VALUE) {
+                log.warn("Product id {} cannot be faceted", productId);
+                return -1;
+            }
+            return productId.intValue();
+        }
+    }
+}
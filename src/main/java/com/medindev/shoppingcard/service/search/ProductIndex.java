@@ -0,0 +1,23 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.dto.ProductDto;
+
+/**
+ * An in-memory structure derived from the product catalog. {@link ProductIndexMaintainer} rebuilds
+ * every index from one pass over the database at startup and keeps them current as products change.
+ */
+public interface ProductIndex {
+
+    /** Starts an off-line rebuild; the live index keeps serving until {@link Builder#publish()}. */
+    Builder newBuilder();
+
+    void upsert(ProductDto product);
+
+    void remove(Long productId);
+
+    interface Builder {
+        void add(ProductDto product);
+
+        void publish();
+    }
+}
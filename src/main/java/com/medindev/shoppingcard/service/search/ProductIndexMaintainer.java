@@ -0,0 +1,127 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.event.CatalogChangedElsewhereEvent;
+import com.medindev.shoppingcard.event.ProductsChangedEvent;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIndexMaintainer {
+
+    private final List<ProductIndex> indexes;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    /** Ids changed while a rebuild was streaming; replayed once the new indexes are published. */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(rebuildThreadFactory());
+    private volatile boolean rebuilding;
+
+    /**
+     * Rebuilds every index from a single streaming pass over the catalog. If the pass fails, the
+     * indexes published before it stay in place, still kept current by {@link #onProductsChanged}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildAll() {
+        long started = System.nanoTime();
+        rebuilding = true;
+        try {
+            List<ProductIndex.Builder> builders = indexes.stream().map(ProductIndex::newBuilder).toList();
+            Integer count = transactionTemplate.execute(status -> {
+                int read = 0;
+                try (Stream<Product> products = productRepository.streamWithCategory(null, null)) {
+                    for (Product product : (Iterable<Product>) products::iterator) {
+                        ProductDto dto = ProductDto.from(product);
+                        builders.forEach(builder -> builder.add(dto));
+                        if (++read % ProductRepository.STREAM_FETCH_SIZE == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+                return read;
+            });
+            builders.forEach(ProductIndex.Builder::publish);
+            rebuilding = false;
+            if (!changedDuringRebuild.isEmpty()) {
+                Set<Long> replay = new HashSet<>(changedDuringRebuild);
+                changedDuringRebuild.removeAll(replay);
+                onProductsChanged(new ProductsChangedEvent(replay));
+            }
+            log.info("Indexed {} products into {} indexes in {} ms", count, indexes.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the product indexes; keeping the current ones", e);
+        } finally {
+            // Changes are only collected while a rebuild can still replay them.
+            rebuilding = false;
+            changedDuringRebuild.clear();
+        }
+    }
+
+    /**
+     * Another instance wrote and which products it touched is unknown, so the indexes are rebuilt, off
+     * the thread that noticed. Changes seen while a rebuild is queued fold into it; changes seen while
+     * one runs queue one more.
+     */
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuildAll();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(event.getProductIds());
+        }
+        List<Long> ids = List.copyOf(event.getProductIds());
+        // Reloaded in slices so bulk writes do not turn into one unbounded IN list.
+        for (int from = 0; from < ids.size(); from += ProductRepository.STREAM_FETCH_SIZE) {
+            List<Long> slice = ids.subList(from, Math.min(from + ProductRepository.STREAM_FETCH_SIZE, ids.size()));
+            Set<Long> missing = new HashSet<>(slice);
+            for (ProductDto dto : productRepository.findDtosByIdIn(slice)) {
+                indexes.forEach(index -> index.upsert(dto));
+                missing.remove(dto.getId());
+            }
+            missing.forEach(id -> indexes.forEach(index -> index.remove(id)));
+        }
+    }
+
+    private static CustomizableThreadFactory rebuildThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("index-rebuild-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
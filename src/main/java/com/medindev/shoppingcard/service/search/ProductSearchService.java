@@ -0,0 +1,240 @@
+package com.medindev.shoppingcard.service.search;
+
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.dto.SearchHit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over product name, brand, category and description.
+ * <p>
+ * Terms live in a sorted map of postings, which doubles as the prefix structure for autocomplete
+ * and search-as-you-type. Documents are scored with BM25 over field-weighted term frequencies and
+ * scaled by the share of query words they match; results come from a bounded top-K heap. Queries
+ * never touch the database: hits carry the summary fields captured at index time.
+ */
+@Service
+public class ProductSearchService implements IProductSearchService, ProductIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_MATCH_WEIGHT = 0.7f;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_RESULTS = 100;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        limit = Math.min(limit, MAX_RESULTS);
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+        lock.readLock().lock();
+        try {
+            Map<Long, Accumulator> matches = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                int bit = 1 << Math.min(i, 31);
+                scoreTerm(token, 1.0f, bit, matches);
+                if (i == tokens.size() - 1 && lastIsPrefix) {
+                    int expansions = 0;
+                    for (String term : index.postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                        scoreTerm(term, PREFIX_MATCH_WEIGHT, bit, matches);
+                        if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return topK(matches, tokens.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(prefix);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        limit = Math.min(limit, MAX_RESULTS);
+        String last = tokens.get(tokens.size() - 1);
+        String lead = String.join(" ", tokens.subList(0, tokens.size() - 1));
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Map.Entry<String, Integer>> best =
+                    new PriorityQueue<>(Comparator.comparingInt(Map.Entry::getValue));
+            for (Map.Entry<String, Map<Long, Float>> entry
+                    : index.postings.subMap(last, true, last + Character.MAX_VALUE, false).entrySet()) {
+                best.offer(Map.entry(entry.getKey(), entry.getValue().size()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<String> suggestions = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                String term = best.poll().getKey();
+                suggestions.add(0, lead.isEmpty() ? term : lead + " " + term);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        Index fresh = new Index();
+        return new Builder() {
+            @Override
+            public void add(ProductDto product) {
+                fresh.add(product);
+            }
+
+            @Override
+            public void publish() {
+                lock.writeLock().lock();
+                try {
+                    index = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void upsert(ProductDto product) {
+        lock.writeLock().lock();
+        try {
+            index.remove(product.getId());
+            index.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void scoreTerm(String term, float weight, int bit, Map<Long, Accumulator> matches) {
+        Map<Long, Float> posting = index.postings.get(term);
+        if (posting == null) {
+            return;
+        }
+        int documents = index.documents.size();
+        double idf = Math.log(1 + (documents - posting.size() + 0.5) / (posting.size() + 0.5));
+        double averageLength = index.averageLength();
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            Document document = index.documents.get(entry.getKey());
+            double tf = entry.getValue();
+            double norm = K1 * (1 - B + B * document.length() / averageLength);
+            double score = weight * idf * (tf * (K1 + 1)) / (tf + norm);
+            matches.computeIfAbsent(entry.getKey(), id -> new Accumulator()).add(score, bit);
+        }
+    }
+
+    private List<SearchHit> topK(Map<Long, Accumulator> matches, int queryTokens, int limit) {
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::getScore));
+        for (Map.Entry<Long, Accumulator> entry : matches.entrySet()) {
+            Accumulator accumulator = entry.getValue();
+            double coverage = (double) Integer.bitCount(accumulator.matchedTokens) / Math.min(queryTokens, 32);
+            double score = accumulator.score * coverage;
+            if (best.size() < limit || score > best.peek().getScore()) {
+                ProductDto product = index.documents.get(entry.getKey()).product();
+                best.offer(new SearchHit(product.getId(), product.getName(), product.getBrand(),
+                        product.getCategory(), product.getPrice(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed().thenComparing(SearchHit::getId));
+        return hits;
+    }
+
+    private static final class Accumulator {
+        double score;
+        int matchedTokens;
+
+        void add(double value, int bit) {
+            score += value;
+            matchedTokens |= bit;
+        }
+    }
+
+    private record Document(ProductDto product, Map<String, Float> terms, float length) {
+    }
+
+    private static final class Index {
+        final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        final Map<Long, Document> documents = new HashMap<>();
+        double totalLength;
+
+        void add(ProductDto product) {
+            Map<String, Float> terms = new HashMap<>();
+            addField(terms, product.getName(), NAME_WEIGHT);
+            addField(terms, product.getBrand(), BRAND_WEIGHT);
+            addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+            addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+            float length = 0;
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(product.getId(), term.getValue());
+                length += term.getValue();
+            }
+            documents.put(product.getId(), new Document(product, terms, length));
+            totalLength += length;
+        }
+
+        void remove(Long productId) {
+            Document document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms().keySet()) {
+                Map<Long, Float> posting = postings.get(term);
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= document.length();
+        }
+
+        double averageLength() {
+            return documents.isEmpty() ? 1.0 : Math.max(totalLength / documents.size(), 1e-6);
+        }
+
+        private static void addField(Map<String, Float> terms, String value, float weight) {
+            for (String token : SearchTokenizer.tokenize(value)) {
+                terms.merge(token, weight, Float::sum);
+            }
+        }
+    }
+}
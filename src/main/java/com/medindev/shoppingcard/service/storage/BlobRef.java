@@ -0,0 +1,9 @@
+package com.medindev.shoppingcard.service.storage;
+
+import lombok.Value;
+
+@Value
+public class BlobRef {
+    String key;
+    long size;
+}
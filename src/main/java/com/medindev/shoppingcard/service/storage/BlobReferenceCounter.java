@@ -0,0 +1,197 @@
+package com.medindev.shoppingcard.service.storage;
+
+import com.medindev.shoppingcard.dto.DedupStats;
+import com.medindev.shoppingcard.exception.BlobUnavailableException;
+import com.medindev.shoppingcard.model.StoredBlob;
+import com.medindev.shoppingcard.repository.StoredBlobRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reference counts for content-addressed blobs. Identical uploads share one file and one
+ * {@link StoredBlob} row; image rows acquire and release references in their own transaction and
+ * the file is deleted only after the transaction that drops the last reference commits.
+ * <p>
+ * Registering a key and purging it are serialized per key, so an upload can never attach to a
+ * file that is being deleted underneath it.
+ */
+@Component
+public class BlobReferenceCounter {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final Duration ORPHAN_GRACE = Duration.ofHours(1);
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+    private static final String INSERT_REFERENCED_SQL =
+            "insert into stored_blob (storage_key, size, ref_count, created_at) values (?, ?, 1, ?)";
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final IBlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public BlobReferenceCounter(StoredBlobRepository storedBlobRepository, IBlobStore blobStore,
+                                JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Makes sure a freshly stored blob has a counter row, committed on its own so concurrent
+     * uploads of the same content do not conflict inside their upload transactions. Call it before
+     * that transaction opens: it takes a connection of its own.
+     *
+     * @throws BlobUnavailableException if the file was purged since it was stored
+     */
+    public void register(BlobRef blob) {
+        ReentrantLock lock = lockFor(blob.getKey());
+        lock.lock();
+        try {
+            if (!blobStore.exists(blob.getKey())) {
+                throw new BlobUnavailableException("Blob was removed while being registered: " + blob.getKey());
+            }
+            if (!storedBlobRepository.existsById(blob.getKey())) {
+                try {
+                    requiresNew.executeWithoutResult(status ->
+                            storedBlobRepository.saveAndFlush(new StoredBlob(blob.getKey(), blob.getSize())));
+                } catch (DataIntegrityViolationException e) {
+                    // Registered concurrently by another instance; the existing row is just as good.
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a reference within the caller's transaction, on its connection only. The row
+     * {@link #register} created may have been purged since, by a concurrent release of the last
+     * reference or by the orphan sweep; it is then inserted again, already referenced, in the same
+     * transaction, which only succeeds while the file is still there.
+     *
+     * @throws BlobUnavailableException if the file went with the row
+     */
+    public void acquire(BlobRef blob) {
+        for (int attempt = 0; attempt < MAX_ACQUIRE_ATTEMPTS; attempt++) {
+            if (storedBlobRepository.incrementRefCount(blob.getKey()) > 0 || insertReferenced(blob)) {
+                return;
+            }
+        }
+        throw new BlobUnavailableException("Blob keeps being purged while it is acquired: " + blob.getKey());
+    }
+
+    // Plain JDBC: a duplicate key is expected here, and through JPA it would mark the caller's
+    // transaction rollback-only.
+    private boolean insertReferenced(BlobRef blob) {
+        ReentrantLock lock = lockFor(blob.getKey());
+        lock.lock();
+        try {
+            if (!blobStore.exists(blob.getKey())) {
+                throw new BlobUnavailableException("Blob was removed while being acquired: " + blob.getKey());
+            }
+            jdbcTemplate.update(INSERT_REFERENCED_SQL, statement -> {
+                statement.setString(1, blob.getKey());
+                statement.setLong(2, blob.getSize());
+                statement.setTimestamp(3, Timestamp.from(Instant.now()),
+                        Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC)));
+            });
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Inserted concurrently; the next attempt increments that row.
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops a reference within the caller's transaction; the file goes after commit if it was the last one. */
+    public void release(String key) {
+        storedBlobRepository.decrementRefCount(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    purgeIfUnreferenced(key);
+                }
+            });
+        } else {
+            purgeIfUnreferenced(key);
+        }
+    }
+
+    /** Drops one reference per occurrence of each key, with one UPDATE per distinct key. */
+    public void releaseAll(Collection<String> keys) {
+        Map<String, Integer> counts = new HashMap<>();
+        keys.forEach(key -> counts.merge(key, 1, Integer::sum));
+        counts.forEach(storedBlobRepository::decrementRefCountBy);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counts.keySet().forEach(BlobReferenceCounter.this::purgeIfUnreferenced);
+                }
+            });
+        } else {
+            counts.keySet().forEach(this::purgeIfUnreferenced);
+        }
+    }
+
+    public void purgeIfUnreferenced(String key) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            Integer deleted = requiresNew.execute(status -> storedBlobRepository.deleteIfUnreferenced(key));
+            if (deleted != null && deleted > 0) {
+                blobStore.delete(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blobs registered by uploads that later rolled back never gain a reference.
+    @Scheduled(fixedDelayString = "${storage.orphan-sweep-interval:PT1H}")
+    public void purgeOrphans() {
+        storedBlobRepository.findUnreferencedKeys(Instant.now().minus(ORPHAN_GRACE))
+                .forEach(this::purgeIfUnreferenced);
+    }
+
+    public DedupStats stats() {
+        Object[] row = storedBlobRepository.summarize().get(0);
+        long uniqueBlobs = ((Number) row[0]).longValue();
+        long physicalBytes = ((Number) row[1]).longValue();
+        long logicalBytes = ((Number) row[2]).longValue();
+        long references = ((Number) row[3]).longValue();
+        double ratio = physicalBytes == 0 ? 1.0 : (double) logicalBytes / physicalBytes;
+        return new DedupStats(uniqueBlobs, references, physicalBytes, logicalBytes, logicalBytes - physicalBytes, ratio);
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,13 @@
+package com.medindev.shoppingcard.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IBlobStore {
+    BlobRef store(InputStream content) throws IOException;
+    Resource load(String key);
+    boolean exists(String key);
+    void delete(String key);
+}
@@ -0,0 +1,88 @@
+package com.medindev.shoppingcard.service.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One-off command that moves image bytes left in the legacy {@code image.image} column into the
+ * blob store. Run the application with {@code --migrate-image-blobs}; it migrates one row per
+ * transaction, clears the column behind it and exits when done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageBlobMigrationRunner implements ApplicationRunner {
+
+    static final String OPTION = "migrate-image-blobs";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IBlobStore blobStore;
+    private final BlobReferenceCounter blobReferenceCounter;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        int migrated = hasLegacyColumn() ? migrate() : 0;
+        log.info("Moved {} image blobs into the blob store", migrated);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private int migrate() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from image where image is not null and storage_key is null order by id", Long.class);
+        for (Long id : ids) {
+            // Stored and registered before the row's transaction, which then holds a single connection.
+            BlobRef blob = jdbcTemplate.query("select image from image where id = ?", this::storeBlob, id);
+            if (blob == null) {
+                continue;
+            }
+            blobReferenceCounter.register(blob);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update("update image set storage_key = ?, file_size = ?, image = null "
+                        + "where id = ? and storage_key is null", blob.getKey(), blob.getSize(), id) > 0) {
+                    blobReferenceCounter.acquire(blob);
+                }
+            });
+        }
+        return ids.size();
+    }
+
+    private BlobRef storeBlob(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        try (InputStream in = rs.getBinaryStream(1)) {
+            return in == null ? null : blobStore.store(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean hasLegacyColumn() {
+        Boolean present = jdbcTemplate.execute((Connection connection) -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, "image", "image")) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(present);
+    }
+}
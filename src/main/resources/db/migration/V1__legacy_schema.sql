@@ -0,0 +1,34 @@
+-- The schema Hibernate generated under the former ddl-auto=create, written for MySQL. Databases created
+-- that way are adopted at this version (spring.flyway.baseline-on-migrate) and upgraded by V2 onwards;
+-- new ones are built through the same steps. Tests run the scripts on H2 in MySQL mode.
+-- The foreign keys are named here rather than hashed as Hibernate named them; no later migration refers to them.
+
+create table category (
+    id bigint not null auto_increment,
+    name varchar(255),
+    primary key (id)
+);
+
+create table product (
+    id bigint not null auto_increment,
+    brand varchar(255),
+    description varchar(255),
+    inventory integer not null,
+    name varchar(255),
+    price decimal(38,2),
+    category_id bigint,
+    primary key (id),
+    constraint fk_product_category foreign key (category_id) references category (id)
+);
+
+create table image (
+    id bigint not null auto_increment,
+    download_url varchar(255),
+    file_name varchar(255),
+    file_type varchar(255),
+    image longblob,
+    name varchar(255),
+    product_id bigint,
+    primary key (id),
+    constraint fk_image_product foreign key (product_id) references product (id)
+);
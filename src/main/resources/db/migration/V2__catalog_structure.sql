@@ -0,0 +1,64 @@
+-- Upgrades the legacy schema to the current mapping. Runs on a populated legacy database as well as on
+-- the empty one V1 creates.
+
+-- Optimistic versions and change timestamps for categories and products
+alter table category add column version bigint;
+alter table category add column updated_at datetime(6);
+update category set version = 0;
+
+alter table product add column version bigint;
+alter table product add column updated_at datetime(6);
+update product set version = 0;
+
+-- Pooled id allocation for product and image rows (@TableGenerator), so inserts can be batched.
+-- Hibernate hands out the block ending at the stored value, so each starts one allocation size
+-- (Product 500, Image 50) above the ids already in use.
+create table id_generator (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+);
+
+insert into id_generator (sequence_name, next_val) select 'product', coalesce(max(id), 0) + 500 from product;
+insert into id_generator (sequence_name, next_val) select 'image', coalesce(max(id), 0) + 50 from image;
+
+-- Image bytes move to the content-addressed blob store. The legacy image column stays in place until
+-- the --migrate-image-blobs run has copied it out.
+alter table image add column storage_key varchar(64);
+alter table image add column file_size bigint not null default 0;
+alter table image add column thumbnail_key varchar(64);
+alter table image add column web_key varchar(64);
+
+create table stored_blob (
+    storage_key varchar(64) not null,
+    size bigint not null,
+    ref_count bigint not null,
+    created_at datetime(6),
+    primary key (storage_key)
+);
+
+create table inventory_reservation (
+    id varchar(36) not null,
+    product_id bigint,
+    quantity integer not null,
+    status enum ('COMMITTED', 'EXPIRED', 'HELD', 'RELEASED'),
+    expires_at datetime(6),
+    created_at datetime(6),
+    primary key (id)
+);
+
+create index idx_reservation_status_expires on inventory_reservation (status, expires_at);
+
+-- The former check-then-save category lookup could store one name twice, and V3 makes names unique.
+-- Products move to the oldest category of each name and the rest are dropped.
+update product set category_id = (
+    select min(keeper.id) from category keeper
+    where keeper.name = (select c.name from category c where c.id = product.category_id))
+where category_id in (
+    select id from category c
+    where c.id > (select min(o.id) from category o where o.name = c.name));
+
+delete from category where id in (
+    select id from (
+        select c.id from category c
+        where c.id > (select min(o.id) from category o where o.name = c.name)) duplicate);
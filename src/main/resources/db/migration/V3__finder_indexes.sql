@@ -0,0 +1,16 @@
+-- One index per repository finder, leading with the columns the finder filters on.
+
+-- CategoryRepository.findByName / existsByName, and the category side of findByCategoryName*
+create unique index ux_category_name on category (name);
+
+-- ProductRepository.findByBrand, findByBrandAndName, countByBrandAndName
+create index idx_product_brand_name on product (brand, name);
+
+-- ProductRepository.findByCategoryName, findByCategoryNameAndBrand, findIdsByCategoryId; also serves the foreign key
+create index idx_product_category_brand on product (category_id, brand);
+
+-- ProductRepository.findByName
+create index idx_product_name on product (name);
+
+-- ImageRepository.findStorageKeysByProductIdIn, deleteByProductIds; also serves the foreign key
+create index idx_image_product on image (product_id);
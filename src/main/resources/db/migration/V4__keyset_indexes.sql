@@ -0,0 +1,11 @@
+-- Keyset pages filter on a column and walk the id in order: brand = ? and id > ? order by id.
+-- (brand, name) and (category_id, brand) cannot return one brand or one category in id order.
+-- Two-column filters need nothing new: InnoDB appends the primary key to every secondary index, so
+-- (brand, name), (category_id, brand) and (name) already end in id for findPageByBrandAndName,
+-- findPageByCategoryAndBrand / findIdsByCategoryAndBrand and findPageByName.
+
+-- ProductRepository.findPageByBrand, findIdsByBrand
+create index idx_product_brand_id on product (brand, id);
+
+-- ProductRepository.findPageByCategory, findIdsByCategory
+create index idx_product_category_id on product (category_id, id);
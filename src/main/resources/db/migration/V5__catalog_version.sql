@@ -0,0 +1,9 @@
+-- Generation behind the catalog read endpoints' ETags (CatalogVersion). One row shared by every
+-- instance, advanced after each committed catalog write, so all instances hand out the same tags.
+create table catalog_version (
+    id tinyint not null,
+    generation bigint not null,
+    primary key (id)
+);
+
+insert into catalog_version (id, generation) values (1, 0);
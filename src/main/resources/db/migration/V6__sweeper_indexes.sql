@@ -0,0 +1,4 @@
+-- Indexes for the @Query finders the startup check now parses as well.
+
+-- StoredBlobRepository.findUnreferencedKeys (ref_count = 0 and created_at < ?), summarize (ref_count > 0)
+create index idx_stored_blob_refs_created on stored_blob (ref_count, created_at);
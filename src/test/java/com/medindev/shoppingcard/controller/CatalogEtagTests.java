@@ -0,0 +1,179 @@
+package com.medindev.shoppingcard.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.medindev.shoppingcard.jdbc.RequestSqlStats;
+import com.medindev.shoppingcard.metrics.SqlBudgetFilter;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
+import com.medindev.shoppingcard.service.product.CatalogVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catalog reads revalidate against the catalog generation: unchanged means 304 with no SQL at all,
+ * and any product write, on this instance or another, makes every earlier tag stale. Stock changes
+ * move the generation once per publishing interval, however many there were. Another instance's
+ * write also reaches the search indexes and the category lookups.
+ */
+// Writes products, so it runs against its own database instead of the catalog the read tests seed.
+// Stock changes are published by the test itself.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-etag;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "catalog.version.stock-interval=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogEtagTests {
+
+    private static final String PRODUCT = "{\"name\":\"etag-product\",\"brand\":\"etag\",\"price\":5,\"inventory\":3,"
+            + "\"description\":\"d\",\"category\":{\"name\":\"etag-category\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private IInventoryService inventoryService;
+
+    @Test
+    void unchangedCatalogAnswersNotModifiedWithoutQueries() throws Exception {
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(PRODUCT))
+                .andExpect(status().isOk());
+        String etag = mockMvc.perform(get("/api/v1/category/all")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        MvcResult revalidated = mockMvc.perform(get("/api/v1/category/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        RequestSqlStats stats = (RequestSqlStats) revalidated.getRequest().getAttribute(SqlBudgetFilter.STATS_ATTRIBUTE);
+        assertThat(stats.getStatements()).isZero();
+        assertThat(revalidated.getResponse().getContentLength()).isZero();
+    }
+
+    @Test
+    void productWriteInvalidatesEarlierTags() throws Exception {
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(PRODUCT))
+                .andExpect(status().isOk());
+        String url = "/api/v1/products/products/by-brand?brand=etag";
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Long id = JsonPath.<Number>read(
+                mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString(), "$.data.items[0].id").longValue();
+
+        mockMvc.perform(put("/api/v1/products/product/" + id + "/update").contentType("application/json")
+                        .content(PRODUCT.replace("\"price\":5", "\"price\":6")))
+                .andExpect(status().isOk());
+
+        MvcResult afterWrite = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(afterWrite.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void stockChangesDropTheCachedViewButMoveTheTagOnlyWhenPublished() throws Exception {
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json")
+                        .content(PRODUCT.replace("etag-product", "stock-product")))
+                .andExpect(status().isOk());
+        Long id = jdbcTemplate.queryForObject("select id from product where name = 'stock-product'", Long.class);
+        String url = "/api/v1/products/product/" + id + "/product";
+        String etag = mockMvc.perform(get(url)).andExpect(jsonPath("$.data.inventory").value(3))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        inventoryService.reserve(id, 1, null);
+        inventoryService.reserve(id, 1, null);
+
+        mockMvc.perform(get(url)).andExpect(jsonPath("$.data.inventory").value(1))
+                .andExpect(result -> assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag));
+        long generation = catalogVersion.current();
+        catalogVersion.publishStockChanges();
+        assertThat(catalogVersion.current()).isEqualTo(generation + 1);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void writesByAnotherInstanceInvalidateTagsAndCachedViews() throws Exception {
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json")
+                        .content(PRODUCT.replace("etag-product", "elsewhere-product")))
+                .andExpect(status().isOk());
+        Long id = jdbcTemplate.queryForObject("select id from product where name = 'elsewhere-product'", Long.class);
+        String url = "/api/v1/products/product/" + id + "/product";
+        String etag = mockMvc.perform(get(url)).andExpect(jsonPath("$.data.price").value(5))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // What another instance's write leaves behind: the row changed and the shared generation bumped.
+        jdbcTemplate.update("update product set price = 7 where id = ?", id);
+        jdbcTemplate.update("update catalog_version set generation = generation + 1 where id = 1");
+        catalogVersion.refresh();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.price").value(7));
+    }
+
+    @Test
+    void writesByAnotherInstanceReachSearchAndCategoryLookups() throws Exception {
+        String product = PRODUCT.replace("etag-product", "indexed-product").replace("etag-category", "moved-category");
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(product))
+                .andExpect(status().isOk());
+        Long id = jdbcTemplate.queryForObject("select id from product where name = 'indexed-product'", Long.class);
+
+        // Another instance renames the product and the category it is in.
+        jdbcTemplate.update("update product set name = 'reindexed-product' where id = ?", id);
+        jdbcTemplate.update("update category set name = 'moved-elsewhere' where name = 'moved-category'");
+        jdbcTemplate.update("update catalog_version set generation = generation + 1 where id = 1");
+        catalogVersion.refresh();
+
+        // The indexes are rebuilt in the background; search responses carry no tag to pin the old answer.
+        MvcResult search = null;
+        for (int i = 0; i < 50; i++) {
+            search = mockMvc.perform(get("/api/v1/products/search?q=reindexed")).andExpect(status().isOk()).andReturn();
+            if (search.getResponse().getContentAsString().contains("reindexed-product")) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(search.getResponse().getContentAsString()).contains("reindexed-product");
+        assertThat(search.getResponse().getHeader(HttpHeaders.ETAG)).isNull();
+
+        // The old name no longer resolves to the renamed row.
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(product))
+                .andExpect(status().isOk());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from category where name = 'moved-category'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void generationOutlivesTheInstance() {
+        catalogVersion.advance();
+        CatalogVersion restarted = new CatalogVersion(jdbcTemplate, transactionManager, event -> { });
+
+        assertThat(restarted.tag()).isEqualTo(catalogVersion.tag());
+    }
+
+    @Test
+    void representationsGetDistinctTags() throws Exception {
+        String json = mockMvc.perform(get("/api/v1/category/all").accept("application/json"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cbor = mockMvc.perform(get("/api/v1/category/all").accept("application/cbor"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cbor).isNotEqualTo(json);
+    }
+}
@@ -0,0 +1,71 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.service.image.IImageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * An unknown variant is a client error, and a variant that cannot be derived is served as the
+ * original on every request.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:image-download;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageDownloadTests {
+
+    private static final byte[] NOT_AN_IMAGE = "plain text".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private IImageService imageService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void unknownSizeIsABadRequest() throws Exception {
+        Long imageId = upload();
+
+        mockMvc.perform(get("/api/v1/images/image/download/" + imageId).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void underivableVariantFallsBackToTheOriginal() throws Exception {
+        Long imageId = upload();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/images/image/download/" + imageId).param("size", "thumbnail"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().bytes(NOT_AN_IMAGE));
+        }
+    }
+
+    private Long upload() {
+        Category category = categoryRepository.save(new Category(null, "download-" + System.nanoTime(), null));
+        Long productId = productRepository.save(new Product("p", "b", BigDecimal.ONE, 1, "d", category)).getId();
+        List<ImageUploadResult> results = imageService.saveImages(
+                List.of(new MockMultipartFile("files", "note.png", "image/png", NOT_AN_IMAGE)), productId);
+        return results.get(0).getImage().getImageId();
+    }
+}
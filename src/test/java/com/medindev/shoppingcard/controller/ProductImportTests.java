@@ -0,0 +1,109 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bad rows fail on their own, a chunk the database rejects rolls back as a whole, and the status says
+ * whether all, some or none of the rows made it.
+ */
+// Chunks of two rows, so a short file spans several transactions.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-import;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "product.import.batch-size=2",
+        "product.import.commit-interval=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportTests {
+
+    private static final String HEADER = "name,brand,price,inventory,description,category\n";
+    // Parses as a price but does not fit the decimal(38,2) column, so only the database rejects it.
+    private static final String TOO_LARGE_PRICE = "1" + "0".repeat(40);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void cleanFileImportsEveryRow() throws Exception {
+        importCsv(HEADER
+                + "a,import-ok,1.50,3,d,import\n"
+                + "\"b, with comma\",import-ok,2,,,import\n"
+                + "c,import-ok,3,1,d,import\n")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.rowsRead").value(3))
+                .andExpect(jsonPath("$.data.imported").value(3))
+                .andExpect(jsonPath("$.data.failed").value(0));
+
+        assertThat(productRepository.findByBrand("import-ok")).extracting(Product::getName)
+                .containsExactlyInAnyOrder("a", "b, with comma", "c");
+    }
+
+    @Test
+    void rowErrorsAndRolledBackChunksAreReportedWithTheirLines() throws Exception {
+        importCsv(HEADER
+                + "a,import-mixed,1,1,d,import\n"
+                + "b,import-mixed,not-a-price,1,d,import\n"
+                + "c,import-mixed,1,1,d,import\n"
+                + "d,import-mixed,1,1,d,import\n"
+                + "e,import-mixed," + TOO_LARGE_PRICE + ",1,d,import\n"
+                + "f,import-mixed,1,1,d,import\n")
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.data.rowsRead").value(6))
+                .andExpect(jsonPath("$.data.imported").value(3))
+                .andExpect(jsonPath("$.data.failed").value(3))
+                .andExpect(jsonPath("$.data.errors[0].line").value(3))
+                .andExpect(jsonPath("$.data.errors[0].message").value("Invalid price: not-a-price"))
+                .andExpect(jsonPath("$.data.errors[1].line").value(5))
+                .andExpect(jsonPath("$.data.errors[1].message").value(startsWith("Lines 5-6 rolled back")));
+
+        // d was valid but shared its chunk with e.
+        assertThat(productRepository.findByBrand("import-mixed")).extracting(Product::getName)
+                .containsExactlyInAnyOrder("a", "c", "f");
+    }
+
+    @Test
+    void fileWithoutAnyImportableRowIsRejected() throws Exception {
+        importCsv(HEADER
+                + ",import-none,1,1,d,import\n"
+                + "b,import-none,-1,1,d,import\n")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data.imported").value(0))
+                .andExpect(jsonPath("$.data.failed").value(2))
+                .andExpect(jsonPath("$.data.errors[0].message").value("Missing name"))
+                .andExpect(jsonPath("$.data.errors[1].message").value("Price must not be negative"));
+
+        assertThat(productRepository.findByBrand("import-none")).isEmpty();
+    }
+
+    @Test
+    void ndjsonAcceptsTheExportShape() throws Exception {
+        mockMvc.perform(post("/api/v1/products/import").contentType("application/x-ndjson")
+                        .content("{\"name\":\"a\",\"Brand\":\"import-json\",\"price\":1,\"category\":{\"name\":\"import\"}}\n"
+                                + "\n"
+                                + "{not json}\n"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.errors[0].line").value(3));
+
+        assertThat(productRepository.findByBrand("import-json")).extracting(Product::getName).containsExactly("a");
+    }
+
+    private ResultActions importCsv(String csv) throws Exception {
+        return mockMvc.perform(post("/api/v1/products/import").contentType("text/csv").content(csv));
+    }
+}
@@ -0,0 +1,101 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.support.SeededCatalog;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read endpoints must issue a fixed number of SQL statements however many rows they return.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:read-statement-count;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SeededCatalog.class)
+class ProductReadStatementCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SeededCatalog catalog;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productListsRunOneStatementPerPage() throws Exception {
+        List<String> endpoints = List.of(
+                "/api/v1/products/all",
+                "/api/v1/products/products/category-0/all/products",
+                "/api/v1/products/products/by-brand?brand=brand-0",
+                "/api/v1/products/products/by/category-and-brand?category=category-1&brand=brand-1",
+                "/api/v1/products/products/product-3/products",
+                "/api/v1/products/products/by/brand-and-name?brandName=brand-1&productName=product-3");
+        for (String endpoint : endpoints) {
+            for (int size : new int[]{2, 100}) {
+                String url = endpoint + (endpoint.contains("?") ? "&" : "?") + "size=" + size;
+                statistics.clear();
+                mockMvc.perform(get(url)).andExpect(status().isOk());
+                assertThat(statistics.getPrepareStatementCount()).as(url).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void productPageReturnsRequestedRowsWithCategoryName() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/products/all?size=100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items", hasSize(100)))
+                .andExpect(jsonPath("$.data.items[0].category").value("category-0"))
+                .andExpect(jsonPath("$.data.items[0].images").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void productDetailLoadsCategoryAndImagesInOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/products/product/" + catalog.getProductId() + "/product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.category").value("category-0"))
+                .andExpect(jsonPath("$.data.images", hasSize(SeededCatalog.IMAGES_PER_PRODUCT)));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void categoryReadsRunOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/category/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(SeededCatalog.CATEGORIES)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/category/category/" + catalog.getCategoryId() + "/category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.products").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
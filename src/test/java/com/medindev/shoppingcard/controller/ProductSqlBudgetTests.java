@@ -0,0 +1,78 @@
+package com.medindev.shoppingcard.controller;
+
+import com.medindev.shoppingcard.jdbc.RequestSqlStats;
+import com.medindev.shoppingcard.jdbc.SqlBudget;
+import com.medindev.shoppingcard.metrics.SqlBudgetFilter;
+import com.medindev.shoppingcard.support.SeededCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Every product read must stay inside the SQL budget configured for it, whatever the catalog size,
+ * so a lazy association touched per row fails here rather than in production.
+ */
+// Its write test adds a product, so it gets a database apart from the statement-count tests.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sql-budget;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SeededCatalog.class)
+class ProductSqlBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SeededCatalog catalog;
+
+    @Test
+    void productReadsStayWithinBudget() throws Exception {
+        List<String> endpoints = List.of(
+                "/api/v1/products/all?size=100",
+                "/api/v1/products/product/" + catalog.getProductId() + "/product",
+                "/api/v1/products/products/category-0/all/products?size=100",
+                "/api/v1/products/products/by-brand?brand=brand-0&size=100",
+                "/api/v1/products/products/by/category-and-brand?category=category-1&brand=brand-1&size=100",
+                "/api/v1/products/products/product-3/products?size=100",
+                "/api/v1/products/products/by/brand-and-name?brandName=brand-1&productName=product-3",
+                "/api/v1/products/products/count/by-brand-and-name?brand=brand-1&name=product-3",
+                "/api/v1/products/search?q=product",
+                "/api/v1/products/search/suggest?prefix=prod",
+                "/api/v1/products/facets");
+        for (String endpoint : endpoints) {
+            MockHttpServletResponse response = mockMvc.perform(get(endpoint)).andReturn().getResponse();
+            assertThat(response.getStatus()).as(endpoint).isEqualTo(200);
+            assertThat(response.getHeader(SqlBudgetFilter.BUDGET_HEADER))
+                    .as(endpoint + " ran " + response.getHeader(SqlBudgetFilter.STATEMENTS_HEADER)
+                            + " statements, worst repeat " + response.getHeader(SqlBudgetFilter.MAX_REPEATED_HEADER))
+                    .isEqualTo("ok");
+        }
+    }
+
+    @Test
+    void statsAreExposedToTestsAndCheckedAgainstBudgets() throws Exception {
+        String body = "{\"name\":\"budget\",\"brand\":\"brand-0\",\"price\":1,\"inventory\":1,"
+                + "\"description\":\"d\",\"category\":{\"name\":\"category-0\"}}";
+        MvcResult result = mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(body))
+                .andReturn();
+        RequestSqlStats stats = (RequestSqlStats) result.getRequest().getAttribute(SqlBudgetFilter.STATS_ATTRIBUTE);
+
+        assertThat(stats.getStatements()).isGreaterThan(1);
+        assertThat(result.getResponse().getHeader(SqlBudgetFilter.STATEMENTS_HEADER))
+                .isEqualTo(String.valueOf(stats.getStatements()));
+        assertThat(new SqlBudget(1, 0, Duration.ZERO).violations(stats)).hasSize(1);
+        assertThat(SqlBudget.UNLIMITED.violations(stats)).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.medindev.shoppingcard.config.DataSourceLimitProperties;
+import com.medindev.shoppingcard.config.ReplicaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A replica whose connection gate is full is busy, not down: the rejected read goes to the primary
+ * and the replica keeps taking the reads after it.
+ */
+class ReplicaRouterTests {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:router-primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:router-replica";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRouter router;
+    private DataSource routing;
+
+    @BeforeEach
+    void createRouter() {
+        ReplicaProperties properties = new ReplicaProperties();
+        ReplicaProperties.Target target = new ReplicaProperties.Target();
+        target.setUrl(REPLICA_URL + ";DB_CLOSE_DELAY=-1");
+        properties.getTargets().add(target);
+        // The routing proxy's own first connection goes to the primary and would pin the thread otherwise.
+        properties.setReadYourWritesWindow(Duration.ZERO);
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUsername("sa");
+        dataSourceProperties.setPassword("");
+        // One connection and no queue: a second concurrent read is turned away by the gate.
+        DataSourceLimitProperties limit = new DataSourceLimitProperties();
+        limit.setMaxConcurrent(1);
+        limit.setMaxWaiting(0);
+
+        router = new ReplicaRouter(properties, dataSourceProperties, limit, new ReadYourWrites(properties, new CatalogReadScope()));
+        router.bindTo(registry);
+        router.checkHealth();
+        routing = router.route(new DriverManagerDataSource(PRIMARY_URL + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    @AfterEach
+    void closeRouter() {
+        router.destroy();
+    }
+
+    @Test
+    void readRejectedByASaturatedReplicaGoesToThePrimaryWithoutMarkingItDown() throws SQLException {
+        try (Connection held = readOnlyConnection()) {
+            assertThat(url(held)).isEqualTo(REPLICA_URL);
+
+            try (Connection rejected = readOnlyConnection()) {
+                assertThat(url(rejected)).isEqualTo(PRIMARY_URL);
+            }
+        }
+
+        assertThat(registry.get("jdbc.routing.connections").tags("target", ReplicaRouter.PRIMARY, "route", "replica-saturated")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("jdbc.replica.healthy").gauge().value()).isEqualTo(1);
+        try (Connection next = readOnlyConnection()) {
+            assertThat(url(next)).isEqualTo(REPLICA_URL);
+        }
+    }
+
+    // The routing proxy picks the target when the first statement needs the physical connection.
+    private Connection readOnlyConnection() throws SQLException {
+        Connection connection = routing.getConnection();
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    private static String url(Connection connection) throws SQLException {
+        return connection.getMetaData().getURL();
+    }
+}
@@ -0,0 +1,191 @@
+package com.medindev.shoppingcard.jdbc;
+
+import com.jayway.jsonpath.JsonPath;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two embedded databases stand in for primary and replica. Nothing replicates between them, so
+ * which one served a read shows in whether the primary's writes are visible. Stock changes keep only
+ * the product-cache refills on the primary, so replicas still serve reads while checkouts run.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "datasource.replica.enabled=true",
+        // IFEXISTS: once the test shuts the replica down, connecting fails instead of creating an empty database.
+        "datasource.replica.targets[0].url=" + ReplicaRoutingTests.REPLICA_URL + ";IFEXISTS=TRUE",
+        "datasource.replica.health-check-interval=1h",
+        "datasource.replica.max-lag=2s"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String PRODUCT = "{\"name\":\"routed-product\",\"brand\":\"routed\",\"price\":5,\"inventory\":3,"
+            + "\"description\":\"d\",\"category\":{\"name\":\"routed-category\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ReplicaRouter replicaRouter;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private IInventoryService inventoryService;
+
+    // Before the context starts, so the replica pool finds the database on its first attempt.
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    void checkReplica() {
+        replicaRouter.checkHealth();
+    }
+
+    @Test
+    void readsGoToTheReplicaExceptWithinTheClientsReadYourWritesWindow() throws Exception {
+        Cookie pin = mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(PRODUCT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("rw-primary");
+        assertThat(pin).isNotNull();
+        awaitCatalogUnpinned();
+
+        assertThat(categories(null)).doesNotContain("routed-category");
+        assertThat(categories(pin)).contains("routed-category");
+
+        assertThat(meterRegistry.get("jdbc.routing.connections").tags("target", "replica-0", "route", "read")
+                .counter().count()).isPositive();
+        assertThat(meterRegistry.get("jdbc.routing.connections").tags("target", "primary", "route", "read-your-writes")
+                .counter().count()).isPositive();
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge()).isNotNull();
+    }
+
+    @Test
+    void afterACatalogWriteTaggedReadsAndRefillsUseThePrimaryUntilReplicasCanHaveCaughtUp() throws Exception {
+        String added = mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(PRODUCT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.<Number>read(added, "$.data.id").longValue();
+
+        // No cookie: another client, whose reads would otherwise go to the replica that lacks the product.
+        mockMvc.perform(get("/api/v1/products/product/" + id + "/product")).andExpect(status().isOk());
+        assertThat(categories(null)).contains("routed-category");
+        assertThat(meterRegistry.get("jdbc.routing.connections").tags("target", "primary", "route", "recent-catalog-write")
+                .counter().count()).isPositive();
+
+        // Later reads go back to the replica; the cached view was loaded from the primary and stays current.
+        awaitCatalogUnpinned();
+        assertThat(categories(null)).doesNotContain("routed-category");
+        mockMvc.perform(get("/api/v1/products/product/" + id + "/product")).andExpect(status().isOk());
+    }
+
+    @Test
+    void otherReadsStayOnTheReplicaWhileReservationsFlow() throws Exception {
+        String added = mockMvc.perform(post("/api/v1/products/add").contentType("application/json")
+                        .content(PRODUCT.replace("\"inventory\":3", "\"inventory\":100000")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.<Number>read(added, "$.data.id").longValue();
+        awaitCatalogUnpinned();
+        double replicaReads = replicaReads();
+
+        // On a thread of its own, as a checkout would be, so only the catalog-wide pins reach the test thread.
+        ExecutorService checkout = Executors.newSingleThreadExecutor();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger reserved = new AtomicInteger();
+        Future<?> reservations = checkout.submit(() -> {
+            while (running.get()) {
+                try {
+                    inventoryService.reserve(id, 1, null);
+                    reserved.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    return;
+                }
+            }
+        });
+        try {
+            for (int i = 0; i < 50 && reserved.get() == 0; i++) {
+                Thread.sleep(100);
+            }
+            assertThat(reserved.get()).isPositive();
+            assertThat(readYourWrites.isCatalogPinnedToPrimary(CatalogReadScope.Kind.REFILL)).isTrue();
+
+            // Tagged reads are not held back by stock changes, so the category listing comes from the replica...
+            assertThat(categories(null)).doesNotContain("routed-category");
+            assertThat(replicaReads()).isGreaterThan(replicaReads);
+            // ...while the product view refilled after a reservation is loaded from the primary.
+            mockMvc.perform(get("/api/v1/products/product/" + id + "/product")).andExpect(status().isOk());
+        } finally {
+            running.set(false);
+            reservations.get(10, TimeUnit.SECONDS);
+            checkout.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsDown() throws Exception {
+        mockMvc.perform(post("/api/v1/products/add").contentType("application/json").content(PRODUCT))
+                .andExpect(status().isOk());
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("shutdown");
+        }
+        try {
+            replicaRouter.checkHealth();
+
+            assertThat(meterRegistry.get("jdbc.replica.healthy").tag("replica", "replica-0").gauge().value()).isZero();
+            assertThat(categories(null)).contains("routed-category");
+        } finally {
+            createReplica();
+        }
+    }
+
+    private void awaitCatalogUnpinned() throws InterruptedException {
+        for (int i = 0; i < 50 && readYourWrites.isCatalogPinnedToPrimary(CatalogReadScope.Kind.REFILL); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(readYourWrites.isCatalogPinnedToPrimary(CatalogReadScope.Kind.REFILL)).isFalse();
+    }
+
+    private double replicaReads() {
+        return meterRegistry.counter("jdbc.routing.connections", "target", "replica-0", "route", "read").count();
+    }
+
+    private String categories(Cookie cookie) throws Exception {
+        var request = get("/api/v1/category/all");
+        if (cookie != null) {
+            request.cookie(cookie);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+}
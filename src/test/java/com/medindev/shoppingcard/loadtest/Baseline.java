@@ -0,0 +1,69 @@
+package com.medindev.shoppingcard.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Regression thresholds for the load test, stored as properties:
+ * {@code throughput.min} for overall requests per second, and {@code <operation>.p99.ms} for
+ * per-operation p99 latency. A run regresses when throughput falls, or a p99 rises, by more than the
+ * tolerance.
+ */
+final class Baseline {
+
+    private final Properties values;
+
+    private Baseline(Properties values) {
+        this.values = values;
+    }
+
+    static Baseline load(Path file) throws IOException {
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            values.load(reader);
+        }
+        return new Baseline(values);
+    }
+
+    /** Describes every threshold the report breaks; empty when it passes. */
+    List<String> violations(LoadReport report, double tolerance) {
+        List<String> violations = new ArrayList<>();
+        String throughput = values.getProperty("throughput.min");
+        if (throughput != null) {
+            double floor = Double.parseDouble(throughput) * (1 - tolerance);
+            if (report.overall().throughput() < floor) {
+                violations.add(String.format(Locale.ROOT, "throughput %.1f req/s is below %.1f (baseline %s)",
+                        report.overall().throughput(), floor, throughput));
+            }
+        }
+        report.operations().forEach((operation, stats) -> {
+            String p99 = values.getProperty(operation + ".p99.ms");
+            if (p99 != null) {
+                double ceiling = Double.parseDouble(p99) * (1 + tolerance);
+                if (stats.p99() > ceiling) {
+                    violations.add(String.format(Locale.ROOT, "%s p99 %.2f ms is above %.2f ms (baseline %s)",
+                            operation, stats.p99(), ceiling, p99));
+                }
+            }
+        });
+        return violations;
+    }
+
+    static void write(Path file, LoadReport report) throws IOException {
+        Properties values = new Properties();
+        values.setProperty("throughput.min", String.format(Locale.ROOT, "%.1f", report.overall().throughput()));
+        report.operations().forEach((operation, stats) ->
+                values.setProperty(operation + ".p99.ms", String.format(Locale.ROOT, "%.2f", stats.p99())));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            values.store(writer, "Load test baseline " + report.settings());
+        }
+    }
+}
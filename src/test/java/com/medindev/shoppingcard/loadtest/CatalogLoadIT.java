@@ -0,0 +1,119 @@
+package com.medindev.shoppingcard.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.service.bulk.IProductImportService;
+import com.medindev.shoppingcard.service.bulk.ImportFormat;
+import com.medindev.shoppingcard.service.image.IImageService;
+import com.medindev.shoppingcard.support.CatalogCsv;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end HTTP load test: boots the application on a random port against in-memory H2, seeds a
+ * catalog and some images, drives the configured workload over real HTTP and checks the results
+ * against the committed baseline. Runs only in the {@code loadtest} profile:
+ * {@code mvn -Ploadtest verify [-Dloadtest.model=open -Dloadtest.rate=300 ...]}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "storage.local.root=target/loadtest-blobs",
+        "logging.level.root=WARN",
+        "logging.level.com.medindev.shoppingcard.loadtest=INFO"})
+@ActiveProfiles("test")
+@Slf4j
+class CatalogLoadIT {
+
+    private static final int SEEDED_IMAGES = 20;
+
+    @LocalServerPort
+    private int port;
+    @Value("${api.prefix}")
+    private String apiPrefix;
+    @Autowired
+    private IProductImportService importService;
+    @Autowired
+    private IImageService imageService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mixedWorkloadStaysWithinBaseline() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        LoadTarget target = seed(settings);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        LoadReport report = new LoadGenerator(settings, target, client).run();
+
+        log.info("Load test report:\n{}", report.format());
+        Files.createDirectories(settings.reportDir());
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(settings.reportDir().resolve("report.json").toFile(), report);
+        if (settings.updateBaseline()) {
+            Baseline.write(settings.baseline(), report);
+            return;
+        }
+        assertThat(report.overall().errorRate())
+                .as("error rate").isLessThanOrEqualTo(settings.maxErrorRate());
+        if (Files.exists(settings.baseline())) {
+            assertThat(Baseline.load(settings.baseline()).violations(report, settings.tolerance()))
+                    .as("regressions against %s", settings.baseline()).isEmpty();
+        }
+    }
+
+    private LoadTarget seed(LoadTestSettings settings) throws IOException {
+        importService.importProducts(
+                new CatalogCsv(settings.catalogSize(), LoadTarget.BRANDS, LoadTarget.CATEGORIES), ImportFormat.CSV);
+        long minProductId = jdbcTemplate.queryForObject("select min(id) from product", Long.class);
+        long maxProductId = jdbcTemplate.queryForObject("select max(id) from product", Long.class);
+        byte[] png = png(128);
+        List<Long> imageIds = new ArrayList<>();
+        for (int i = 0; i < SEEDED_IMAGES; i++) {
+            MockMultipartFile file = new MockMultipartFile("files", "seed-" + i + ".png", "image/png",
+                    LoadTarget.withNonce(png, ThreadLocalRandom.current()));
+            ImageUploadResult result = imageService.saveImages(List.of(file), minProductId + i).get(0);
+            imageIds.add(result.getImage().getImageId());
+        }
+        return new LoadTarget("http://localhost:" + port + apiPrefix, minProductId, maxProductId, imageIds, png);
+    }
+
+    private static byte[] png(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(11);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
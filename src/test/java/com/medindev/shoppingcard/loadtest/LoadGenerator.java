@@ -0,0 +1,103 @@
+package com.medindev.shoppingcard.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the operation mix against the application and records latencies in HDR histograms.
+ * <p>
+ * Closed model: {@code users} loops each send a request, wait for the response and send the next,
+ * so throughput is an outcome. Open model: requests are issued on a fixed schedule regardless of
+ * how many are outstanding, and latency is measured from the scheduled start rather than the
+ * actual send, so a stalled server shows up in the percentiles instead of slowing the generator
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final LoadTestSettings settings;
+    private final LoadTarget target;
+    private final HttpClient client;
+    private final Operation[] schedule;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    LoadGenerator(LoadTestSettings settings, LoadTarget target, HttpClient client) {
+        this.settings = settings;
+        this.target = target;
+        this.client = client;
+        List<Operation> weighted = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        });
+        this.schedule = weighted.toArray(Operation[]::new);
+    }
+
+    LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (settings.model() == LoadTestSettings.Model.CLOSED) {
+                for (int user = 0; user < settings.users(); user++) {
+                    executor.execute(() -> {
+                        while (System.nanoTime() < end) {
+                            send(System.nanoTime(), measureFrom);
+                        }
+                    });
+                }
+            } else {
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+                for (long intended = start; intended < end; intended += interval) {
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    long scheduled = intended;
+                    executor.execute(() -> send(scheduled, measureFrom));
+                }
+            }
+        }
+        return LoadReport.of(settings, latencies, errors, settings.duration());
+    }
+
+    private void send(long intendedStart, long measureFrom) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = schedule[random.nextInt(schedule.length)];
+        boolean ok;
+        try {
+            HttpRequest request = operation.request(target, random);
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400;
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (intendedStart < measureFrom) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+        latencies.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (!ok) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+}
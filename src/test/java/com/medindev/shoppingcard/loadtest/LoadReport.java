@@ -0,0 +1,78 @@
+package com.medindev.shoppingcard.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results of one load test run: per-operation and overall request counts, errors, throughput and
+ * latency percentiles (milliseconds).
+ */
+record LoadReport(Map<String, Object> settings, Map<String, Stats> operations, Stats overall) {
+
+    record Stats(long requests, long errors, double throughput, double p50, double p95, double p99, double p999,
+                 double max) {
+
+        static Stats of(Histogram histogram, long errors, Duration duration) {
+            return new Stats(histogram.getTotalCount(), errors,
+                    histogram.getTotalCount() / (duration.toNanos() / 1e9),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    static LoadReport of(LoadTestSettings settings, Map<Operation, Histogram> latencies,
+                         Map<Operation, AtomicLong> errors, Duration duration) {
+        Map<String, Stats> operations = new LinkedHashMap<>();
+        Histogram all = null;
+        long allErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            long failed = errors.get(entry.getKey()).get();
+            operations.put(entry.getKey().key(), Stats.of(entry.getValue(), failed, duration));
+            if (all == null) {
+                all = entry.getValue().copy();
+            } else {
+                all.add(entry.getValue());
+            }
+            allErrors += failed;
+        }
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("model", settings.model());
+        if (settings.model() == LoadTestSettings.Model.CLOSED) {
+            described.put("users", settings.users());
+        } else {
+            described.put("rate", settings.rate());
+        }
+        described.put("warmup", settings.warmup().toString());
+        described.put("duration", duration.toString());
+        described.put("catalogSize", settings.catalogSize());
+        described.put("mix", settings.mix());
+        return new LoadReport(described, operations, Stats.of(all, allErrors, duration));
+    }
+
+    String format() {
+        StringBuilder out = new StringBuilder(String.format("%nLoad test %s%n", settings));
+        out.append(String.format("%-10s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.forEach((name, stats) -> out.append(row(name, stats)));
+        out.append(row("overall", overall));
+        return out.toString();
+    }
+
+    private static String row(String name, Stats stats) {
+        return String.format("%-10s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, stats.requests(),
+                stats.errors(), stats.throughput(), stats.p50(), stats.p95(), stats.p99(), stats.p999(), stats.max());
+    }
+}
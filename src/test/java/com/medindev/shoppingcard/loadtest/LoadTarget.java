@@ -0,0 +1,53 @@
+package com.medindev.shoppingcard.loadtest;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The running application and the data seeded into it. */
+final class LoadTarget {
+
+    static final int BRANDS = 50;
+    static final int CATEGORIES = 20;
+
+    private final String apiBase;
+    private final long minProductId;
+    private final long maxProductId;
+    private final long[] imageIds;
+    private final byte[] png;
+
+    LoadTarget(String apiBase, long minProductId, long maxProductId, List<Long> imageIds, byte[] png) {
+        this.apiBase = apiBase;
+        this.minProductId = minProductId;
+        this.maxProductId = maxProductId;
+        this.imageIds = imageIds.stream().mapToLong(Long::longValue).toArray();
+        this.png = png;
+    }
+
+    URI uri(String path) {
+        return URI.create(apiBase + path);
+    }
+
+    long randomProductId(ThreadLocalRandom random) {
+        return random.nextLong(minProductId, maxProductId + 1);
+    }
+
+    long randomImageId(ThreadLocalRandom random) {
+        return imageIds[random.nextInt(imageIds.length)];
+    }
+
+    /** The seed PNG with random trailing bytes, so every upload stores new content instead of deduplicating. */
+    byte[] uniqueImage(ThreadLocalRandom random) {
+        return withNonce(png, random);
+    }
+
+    static byte[] withNonce(byte[] png, ThreadLocalRandom random) {
+        byte[] content = Arrays.copyOf(png, png.length + Long.BYTES);
+        long nonce = random.nextLong();
+        for (int i = 0; i < Long.BYTES; i++) {
+            content[png.length + i] = (byte) (nonce >>> (i * 8));
+        }
+        return content;
+    }
+}
@@ -0,0 +1,69 @@
+package com.medindev.shoppingcard.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties so runs can be tuned from the
+ * Maven command line, e.g. {@code -Dloadtest.model=open -Dloadtest.rate=400}.
+ *
+ * @param model          closed (fixed number of users, each waiting for its response) or open (fixed arrival rate)
+ * @param users          concurrent users in the closed model
+ * @param rate           requests per second in the open model
+ * @param warmup         initial period whose results are discarded
+ * @param duration       measured period
+ * @param mix            relative weight of each operation
+ * @param catalogSize    products seeded before the run
+ * @param baseline       thresholds the run is checked against; missing file means no check
+ * @param tolerance      allowed relative regression against the baseline
+ * @param maxErrorRate   allowed fraction of failed requests
+ * @param updateBaseline write this run's results as the new baseline instead of checking
+ * @param reportDir      where the JSON report is written
+ */
+record LoadTestSettings(Model model, int users, double rate, Duration warmup, Duration duration,
+                        Map<Operation, Integer> mix, int catalogSize, Path baseline, double tolerance,
+                        double maxErrorRate, boolean updateBaseline, Path reportDir) {
+
+    enum Model { CLOSED, OPEN }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Model.valueOf(property("model", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(property("users", "16")),
+                Double.parseDouble(property("rate", "200")),
+                Duration.parse("PT" + property("warmup", "10s")),
+                Duration.parse("PT" + property("duration", "30s")),
+                parseMix(property("mix", "browse:35,filter:25,detail:30,download:8,upload:2")),
+                Integer.parseInt(property("catalog-size", "5000")),
+                Path.of(property("baseline", "src/test/resources/loadtest-baseline.properties")),
+                Double.parseDouble(property("tolerance", "0.25")),
+                Double.parseDouble(property("max-error-rate", "0.01")),
+                Boolean.parseBoolean(property("update-baseline", "false")),
+                Path.of(property("report-dir", "target/loadtest")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like 'browse:40', got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,71 @@
+package com.medindev.shoppingcard.loadtest;
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The request types of the mixed workload. */
+enum Operation {
+
+    /** First page of the product listing. */
+    BROWSE {
+        @Override
+        HttpRequest request(LoadTarget target, ThreadLocalRandom random) {
+            return get(target, "/products/all?size=20");
+        }
+    },
+    /** First page of a category and brand filter. */
+    FILTER {
+        @Override
+        HttpRequest request(LoadTarget target, ThreadLocalRandom random) {
+            // Seeded product i has category i % CATEGORIES and brand i % BRANDS; pick a pair that exists.
+            int i = random.nextInt(LoadTarget.CATEGORIES * LoadTarget.BRANDS);
+            return get(target, "/products/products/by/category-and-brand?category=category-"
+                    + i % LoadTarget.CATEGORIES + "&brand=brand-" + i % LoadTarget.BRANDS + "&size=20");
+        }
+    },
+    /** Product detail of a random product. */
+    DETAIL {
+        @Override
+        HttpRequest request(LoadTarget target, ThreadLocalRandom random) {
+            return get(target, "/products/product/" + target.randomProductId(random) + "/product");
+        }
+    },
+    /** Download of one of the seeded images. */
+    DOWNLOAD {
+        @Override
+        HttpRequest request(LoadTarget target, ThreadLocalRandom random) {
+            return get(target, "/images/image/download/" + target.randomImageId(random));
+        }
+    },
+    /** Upload of a new, unique image to a random product. */
+    UPLOAD {
+        @Override
+        HttpRequest request(LoadTarget target, ThreadLocalRandom random) {
+            String boundary = "loadtest" + random.nextLong(Long.MAX_VALUE);
+            byte[] image = target.uniqueImage(random);
+            byte[] head = ("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"files\"; filename=\"load.png\"\r\n"
+                    + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] body = Arrays.copyOf(head, head.length + image.length + tail.length);
+            System.arraycopy(image, 0, body, head.length, image.length);
+            System.arraycopy(tail, 0, body, head.length + image.length, tail.length);
+            return HttpRequest.newBuilder(target.uri("/images/upload?productId=" + target.randomProductId(random)))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+    };
+
+    abstract HttpRequest request(LoadTarget target, ThreadLocalRandom random);
+
+    String key() {
+        return name().toLowerCase();
+    }
+
+    private static HttpRequest get(LoadTarget target, String path) {
+        return HttpRequest.newBuilder(target.uri(path)).GET().build();
+    }
+}
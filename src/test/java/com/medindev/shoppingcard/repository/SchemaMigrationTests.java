@@ -0,0 +1,226 @@
+package com.medindev.shoppingcard.repository;
+
+import com.medindev.shoppingcard.ShoppingcardApplication;
+import com.medindev.shoppingcard.jdbc.FinderIndexChecker;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The migrations build the schema the entities expect, a restart has nothing left to migrate, a
+ * database left by the former {@code ddl-auto=create} is adopted and upgraded, and every finder,
+ * derived or {@code @Query}, runs on an index in the embedded database's plans.
+ */
+// Own database: one test drops and restores an index.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:schema-migration;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private FinderIndexChecker finderIndexChecker;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long categoryId;
+
+    @BeforeAll
+    void seedCatalog() {
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            Category category = categoryRepository.save(new Category(null, "category-" + c, null));
+            categoryId = category.getId();
+            for (int p = 0; p < 50; p++) {
+                products.add(new Product("product-" + p, "brand-" + (p % 10), BigDecimal.ONE, 1, "d", category));
+            }
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void migrationsApplyOnceAndRestartsHaveNothingToRun() {
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString))
+                .containsExactly("1", "2", "3", "4", "5", "6");
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.migrate().migrationsExecuted).isZero();
+    }
+
+    @Test
+    void legacyDatabaseIsBaselinedAndUpgradedToTheCurrentMapping() {
+        String url = "jdbc:h2:mem:legacy-schema;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        // As Hibernate created it under ddl-auto=create
+        legacy.execute("create table category (id bigint not null auto_increment, name varchar(255), primary key (id))");
+        legacy.execute("create table product (id bigint not null auto_increment, brand varchar(255), "
+                + "description varchar(255), inventory integer not null, name varchar(255), price decimal(38,2), "
+                + "category_id bigint, primary key (id))");
+        legacy.execute("create table image (id bigint not null auto_increment, download_url varchar(255), "
+                + "file_name varchar(255), file_type varchar(255), image longblob, name varchar(255), "
+                + "product_id bigint, primary key (id))");
+        legacy.execute("alter table product add constraint FK1mtsbur82frn64de7balymq9s foreign key (category_id) "
+                + "references category (id)");
+        legacy.execute("alter table image add constraint FKgpextbyee3uk9u6o2381m7ft1 foreign key (product_id) "
+                + "references product (id)");
+        // The old check-then-save lookup could store a category name twice
+        legacy.update("insert into category (name) values ('shoes'), ('shoes'), ('hats')");
+        legacy.update("insert into product (brand, description, inventory, name, price, category_id) values "
+                + "('b', 'd', 3, 'first', 1.00, 1), ('b', 'd', 4, 'second', 2.00, 2), ('b', 'd', 5, 'third', 3.00, 3)");
+        legacy.update("insert into image (file_name, file_type, image, name, product_id) values (?, ?, ?, ?, ?)",
+                "a.png", "image/png", new byte[]{1, 2, 3}, "a.png", 1L);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShoppingcardApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + url, "--server.port=0")) {
+            MigrationInfo[] applied = context.getBean(Flyway.class).info().applied();
+            assertThat(Arrays.stream(applied).map(MigrationInfo::getVersion).map(Object::toString))
+                    .containsExactly("1", "2", "3", "4", "5", "6");
+            assertThat(applied[0].getType()).isEqualTo(MigrationType.BASELINE);
+
+            assertThat(legacy.queryForList("select name from category order by id", String.class))
+                    .containsExactly("shoes", "hats");
+            assertThat(legacy.queryForList("select category_id from product order by id", Long.class))
+                    .containsExactly(1L, 1L, 3L);
+            // Left in place for --migrate-image-blobs
+            assertThat(legacy.queryForObject("select image from image where storage_key is null", byte[].class))
+                    .containsExactly(1, 2, 3);
+
+            Product added = context.getBean(ProductRepository.class)
+                    .save(new Product("fourth", "b", BigDecimal.ONE, 1, "d", null));
+            assertThat(added.getId()).isGreaterThan(3L);
+        }
+    }
+
+    @Test
+    void everyFinderHasASupportingIndex() throws Exception {
+        assertThat(finderIndexChecker.findUnindexedFinders()).isEmpty();
+    }
+
+    @Test
+    void checkerReportsAFinderWhoseIndexIsMissing() throws Exception {
+        jdbcTemplate.execute("drop index idx_product_name");
+        try {
+            assertThat(finderIndexChecker.findUnindexedFinders())
+                    .map(problem -> problem.substring(0, problem.indexOf(':')))
+                    .containsExactlyInAnyOrder("ProductRepository.findByName", "ProductRepository.findPageByName");
+        } finally {
+            jdbcTemplate.execute("create index idx_product_name on product (name)");
+        }
+    }
+
+    @Test
+    void finderPlansUseIndexes() throws Exception {
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("findByCategoryName", () -> productRepository.findByCategoryName("category-3"));
+        finders.put("findByBrand", () -> productRepository.findByBrand("brand-3"));
+        finders.put("findByCategoryNameAndBrand", () -> productRepository.findByCategoryNameAndBrand("category-3", "brand-3"));
+        finders.put("findByName", () -> productRepository.findByName("product-3"));
+        finders.put("findByBrandAndName", () -> productRepository.findByBrandAndName("brand-3", "product-3"));
+        finders.put("countByBrandAndName", () -> productRepository.countByBrandAndName("brand-3", "product-3"));
+        finders.put("findIdsByCategoryId", () -> productRepository.findIdsByCategoryId(categoryId));
+        finders.put("findPage", () -> productRepository.findPage(0L, Limit.of(20)));
+        finders.put("findPageByCategory", () -> productRepository.findPageByCategory("category-3", 0L, Limit.of(20)));
+        finders.put("findPageByBrand", () -> productRepository.findPageByBrand("brand-3", 0L, Limit.of(20)));
+        finders.put("findPageByCategoryAndBrand",
+                () -> productRepository.findPageByCategoryAndBrand("category-3", "brand-3", 0L, Limit.of(20)));
+        finders.put("findPageByName", () -> productRepository.findPageByName("product-3", 0L, Limit.of(20)));
+        finders.put("findPageByBrandAndName",
+                () -> productRepository.findPageByBrandAndName("brand-3", "product-3", 0L, Limit.of(20)));
+        finders.put("findIdsByCategory", () -> productRepository.findIdsByCategory("category-3", 0L, Limit.of(20)));
+        finders.put("findIdsByBrand", () -> productRepository.findIdsByBrand("brand-3", 0L, Limit.of(20)));
+        finders.put("findIdsByCategoryAndBrand",
+                () -> productRepository.findIdsByCategoryAndBrand("category-3", "brand-3", 0L, Limit.of(20)));
+        finders.put("Category.findByName", () -> categoryRepository.findByName("category-3"));
+        finders.put("Category.existsByName", () -> categoryRepository.existsByName("category-3"));
+        finders.put("Category.findIdByName", () -> categoryRepository.findIdByName("category-3"));
+
+        for (Map.Entry<String, Runnable> finder : finders.entrySet()) {
+            List<QueryInfo> queries = capture(finder.getValue());
+            assertThat(queries).as(finder.getKey()).isNotEmpty();
+            String plan = explain(queries.get(0));
+            assertThat(plan).as(finder.getKey() + " plan:\n" + plan).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    // This thread's statements only: the catalog version poll runs on the scheduler meanwhile.
+    private List<QueryInfo> capture(Runnable finder) {
+        Thread caller = Thread.currentThread();
+        List<QueryInfo> queries = new ArrayList<>();
+        QueryExecutionListener listener = new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                if (Thread.currentThread() == caller) {
+                    queries.addAll(queryInfoList);
+                }
+            }
+        };
+        List<QueryExecutionListener> listeners = ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener()
+                .getListeners();
+        listeners.add(listener);
+        try {
+            finder.run();
+        } finally {
+            listeners.remove(listener);
+        }
+        return queries;
+    }
+
+    private String explain(QueryInfo query) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + query.getQuery())) {
+            for (ParameterSetOperation parameter : query.getParametersList().get(0)) {
+                Object[] args = parameter.getArgs();
+                statement.setObject((Integer) args[0], args[1]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvProductRowReaderTests {
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        CsvProductRowReader reader = reader("Name,Description\n"
+                + "\"a, b\",\"say \"\"hi\"\"\"\n"
+                + "c,\"two\nlines\"\n");
+
+        assertThat(reader.next()).isEqualTo(Map.of("name", "a, b", "description", "say \"hi\""));
+        assertThat(reader.line()).isEqualTo(2);
+        assertThat(reader.next()).isEqualTo(Map.of("name", "c", "description", "two\nlines"));
+        assertThat(reader.line()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void lineNumbersCountCrLfOnceAndIncludeLineBreaksInsideQuotes() throws IOException {
+        CsvProductRowReader reader = reader("name,description\r\n"
+                + "a,\"x\r\ny\"\r\n"
+                + "\r\n"
+                + "b,z\r\n");
+
+        assertThat(reader.next()).containsEntry("description", "x\r\ny");
+        assertThat(reader.line()).isEqualTo(2);
+        assertThat(reader.next()).containsEntry("name", "b");
+        assertThat(reader.line()).isEqualTo(5);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void lastRecordNeedsNoTrailingLineBreak() throws IOException {
+        CsvProductRowReader reader = reader("name,brand\na,b");
+
+        assertThat(reader.next()).isEqualTo(Map.of("name", "a", "brand", "b"));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void wrongColumnCountFailsOnlyThatRecord() throws IOException {
+        CsvProductRowReader reader = reader("name,brand\na\nb,c\n");
+
+        assertThatThrownBy(reader::next).isInstanceOf(ImportRowException.class)
+                .hasMessage("Expected 2 columns but found 1")
+                .extracting(e -> ((ImportRowException) e).getLine()).isEqualTo(2L);
+        assertThat(reader.next()).isEqualTo(Map.of("name", "b", "brand", "c"));
+    }
+
+    @Test
+    void unterminatedQuoteReportsTheLineItStartedOn() throws IOException {
+        CsvProductRowReader reader = reader("name\nok\n\"open\nstill open\n");
+
+        assertThat(reader.next()).containsEntry("name", "ok");
+        assertThatThrownBy(reader::next).isInstanceOf(ImportRowException.class)
+                .hasMessage("Unterminated quoted field")
+                .extracting(e -> ((ImportRowException) e).getLine()).isEqualTo(3L);
+    }
+
+    @Test
+    void emptyInputHasNoHeader() {
+        assertThatThrownBy(() -> reader("")).isInstanceOf(ImportRowException.class).hasMessage("Missing header row");
+    }
+
+    private static CsvProductRowReader reader(String csv) throws IOException {
+        return new CsvProductRowReader(new StringReader(csv));
+    }
+}
@@ -0,0 +1,270 @@
+package com.medindev.shoppingcard.service.bulk;
+
+import com.medindev.shoppingcard.dto.BulkResult;
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ProductNotFoundException;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.model.StoredBlob;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ImageRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.repository.StoredBlobRepository;
+import com.medindev.shoppingcard.request.ProductPatch;
+import com.medindev.shoppingcard.service.image.IImageService;
+import com.medindev.shoppingcard.service.inventory.IInventoryService;
+import com.medindev.shoppingcard.service.product.IProductService;
+import com.medindev.shoppingcard.service.storage.IBlobStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Partial updates keep the fields they leave out, change stock in the same statement (through the
+ * leased stock for a hot SKU) and apply in full or not at all; filter deletes walk every matching
+ * chunk, and deleted products give back their images' blob references.
+ */
+// Chunks of two, so a handful of products already spans several transactions.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-bulk;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "product.bulk.chunk-size=2",
+        "image.processing.enabled=false"})
+@ActiveProfiles("test")
+class ProductBulkServiceTests {
+
+    @Autowired
+    private IProductBulkService productBulkService;
+    @Autowired
+    private IProductService productService;
+    @Autowired
+    private IImageService imageService;
+    @Autowired
+    private IInventoryService inventoryService;
+    @Autowired
+    private IBlobStore blobStore;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void patchChangesOnlyTheFieldsItSets() {
+        Product product = product("bulk-patch", "bulk");
+
+        BulkResult result = productBulkService.updateProducts(List.of(patch(product.getId(), new BigDecimal("9.99"), null)));
+
+        assertThat(result.getAffected()).isEqualTo(1);
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(updated.getPrice()).isEqualByComparingTo("9.99");
+        assertThat(updated.getDescription()).isEqualTo("d");
+        assertThat(updated.getInventory()).isEqualTo(5);
+
+        productBulkService.updateProducts(List.of(patch(product.getId(), null, "new")));
+
+        updated = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(updated.getPrice()).isEqualByComparingTo("9.99");
+        assertThat(updated.getDescription()).isEqualTo("new");
+    }
+
+    @Test
+    void stockDeltasAreRelativeAndNeverTakeStockBelowZero() {
+        Product product = product("bulk-stock", "bulk");
+        ProductPatch restock = patch(product.getId(), null, null);
+        restock.setInventoryDelta(3);
+        ProductPatch oversell = patch(product.getId(), BigDecimal.TEN, null);
+        oversell.setInventoryDelta(-9);
+
+        BulkResult result = productBulkService.updateProducts(List.of(restock, oversell));
+
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getRefused()).containsExactly(product.getId());
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(updated.getInventory()).isEqualTo(8);
+        // A refused item is not applied at all, price included.
+        assertThat(updated.getPrice()).isEqualByComparingTo("1");
+    }
+
+    @Test
+    void absoluteStockIsSetOutrightOrOnlyOverTheExpectedStock() {
+        Product product = product("bulk-set", "bulk");
+        ProductPatch blind = patch(product.getId(), null, null);
+        blind.setInventory(50);
+        ProductPatch stale = patch(product.getId(), null, null);
+        stale.setInventory(60);
+        stale.setExpectedInventory(5);
+        ProductPatch current = patch(product.getId(), null, null);
+        current.setInventory(40);
+        current.setExpectedInventory(50);
+
+        BulkResult result = productBulkService.updateProducts(List.of(blind, stale, current));
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(result.getRefused()).containsExactly(product.getId());
+        assertThat(productRepository.findInventoryById(product.getId())).contains(40);
+    }
+
+    @Test
+    void stockChangesReachTheLeasedStockOfAHotSku() {
+        Product product = product("bulk-hot", "bulk");
+        inventoryService.enableHotSku(product.getId());
+        try {
+            inventoryService.reserve(product.getId(), 1, null);
+            ProductPatch sold = patch(product.getId(), null, null);
+            sold.setInventoryDelta(-3);
+
+            productBulkService.updateProducts(List.of(sold));
+
+            inventoryService.reserve(product.getId(), 1, null);
+            assertThatThrownBy(() -> inventoryService.reserve(product.getId(), 1, null))
+                    .isInstanceOf(InsufficientStockException.class);
+
+            ProductPatch counted = patch(product.getId(), BigDecimal.TEN, null);
+            counted.setInventory(4);
+            productBulkService.updateProducts(List.of(counted));
+
+            inventoryService.reserve(product.getId(), 4, null);
+            assertThatThrownBy(() -> inventoryService.reserve(product.getId(), 1, null))
+                    .isInstanceOf(InsufficientStockException.class);
+            assertThat(productRepository.findById(product.getId()).orElseThrow().getPrice()).isEqualByComparingTo("10");
+        } finally {
+            inventoryService.disableHotSku(product.getId());
+        }
+        assertThat(productRepository.findInventoryById(product.getId())).contains(0);
+    }
+
+    @Test
+    void batchWithoutRowCountsReportsTheIdsThatDoNotExist() {
+        doAnswer(invocation -> {
+            int[] counts = (int[]) invocation.callRealMethod();
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+        Product product = product("bulk-no-info", "bulk");
+
+        BulkResult result = productBulkService.updateProducts(List.of(
+                patch(product.getId(), BigDecimal.TEN, null), patch(Long.MAX_VALUE, BigDecimal.TEN, null)));
+
+        assertThat(result.getRequested()).isEqualTo(2);
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getRefused()).containsExactly(Long.MAX_VALUE);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getPrice()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void filterDeleteWalksEveryChunkAndLeavesOtherProducts() {
+        for (int i = 0; i < 5; i++) {
+            product("bulk-filter-" + i, "bulk-filter");
+        }
+        Product otherCategory = product("bulk-filter-other", "bulk-filter", "bulk-other");
+        Product otherBrand = product("bulk-filter-kept", "bulk-kept");
+
+        BulkResult result = productBulkService.deleteProductsByFilter("bulk", "bulk-filter");
+
+        assertThat(result.getAffected()).isEqualTo(5);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(productRepository.findByBrand("bulk-filter")).extracting(Product::getId)
+                .containsExactly(otherCategory.getId());
+        assertThat(productRepository.findById(otherBrand.getId())).isPresent();
+
+        assertThat(productBulkService.deleteProductsByFilter(null, "bulk-filter").getAffected()).isEqualTo(1);
+        assertThatThrownBy(() -> productBulkService.deleteProductsByFilter(" ", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deletedProductsReleaseTheirBlobReferences() throws IOException {
+        byte[] shared = randomContent();
+        byte[] own = randomContent();
+        Product first = product("bulk-blob-1", "bulk-blob");
+        Product second = product("bulk-blob-2", "bulk-blob");
+        upload(first, shared, own);
+        upload(second, shared);
+        String sharedKey = storageKeyOf(shared);
+        String ownKey = storageKeyOf(own);
+        assertThat(refCount(sharedKey)).isEqualTo(2);
+
+        productService.deleteProductById(first.getId());
+
+        assertThat(imageRepository.findStorageKeysByProductIdIn(List.of(first.getId()))).isEmpty();
+        assertThat(refCount(sharedKey)).isEqualTo(1);
+        assertThat(storedBlobRepository.findById(ownKey)).isEmpty();
+        assertThat(blobStore.exists(ownKey)).isFalse();
+        assertThat(blobStore.exists(sharedKey)).isTrue();
+
+        BulkResult result = productBulkService.deleteProducts(List.of(second.getId(), second.getId(), Long.MAX_VALUE));
+
+        assertThat(result.getRequested()).isEqualTo(2);
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(storedBlobRepository.findById(sharedKey)).isEmpty();
+        assertThat(blobStore.exists(sharedKey)).isFalse();
+        assertThatThrownBy(() -> productService.deleteProductById(second.getId()))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    private Product product(String name, String brand) {
+        return product(name, brand, "bulk");
+    }
+
+    private Product product(String name, String brand, String categoryName) {
+        Category category = categoryRepository.findByName(categoryName);
+        if (category == null) {
+            category = categoryRepository.save(new Category(null, categoryName, null));
+        }
+        return productRepository.save(new Product(name, brand, BigDecimal.ONE, 5, "d", category));
+    }
+
+    private void upload(Product product, byte[]... contents) {
+        List<MockMultipartFile> files = Arrays.stream(contents)
+                .map(content -> new MockMultipartFile("files", "f.png", "image/png", content))
+                .toList();
+        assertThat(imageService.saveImages(List.copyOf(files), product.getId())).allMatch(ImageUploadResult::isSuccess);
+    }
+
+    private long refCount(String key) {
+        return storedBlobRepository.findById(key).map(StoredBlob::getRefCount).orElse(0L);
+    }
+
+    // The store is content-addressed, so storing the same bytes again just yields their key.
+    private String storageKeyOf(byte[] content) throws IOException {
+        return blobStore.store(new ByteArrayInputStream(content)).getKey();
+    }
+
+    private static ProductPatch patch(Long id, BigDecimal price, String description) {
+        ProductPatch patch = new ProductPatch();
+        patch.setId(id);
+        patch.setPrice(price);
+        patch.setDescription(description);
+        return patch;
+    }
+
+    private static byte[] randomContent() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
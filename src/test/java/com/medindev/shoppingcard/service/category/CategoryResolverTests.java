@@ -0,0 +1,77 @@
+package com.medindev.shoppingcard.service.category;
+
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrent writers of one new category end up with a single row, and a category is committed
+ * before the write that needed it, so it outlives that write's rollback.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:category-resolver;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class CategoryResolverTests {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private CategoryResolver categoryResolver;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentWritersOfANewCategoryShareOneRow() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(WRITERS);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                ids.add(executor.submit(() -> {
+                    start.await();
+                    return categoryResolver.resolveId("concurrent");
+                }));
+            }
+            Set<Long> distinct = new HashSet<>();
+            for (Future<Long> id : ids) {
+                distinct.add(id.get());
+            }
+            assertThat(distinct).singleElement().isEqualTo(categoryRepository.findIdByName("concurrent"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void categoryIsCommittedBeforeTheWriteThatNeedsIt() {
+        Long id = categoryResolver.resolveId("rolled-back");
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(categoryResolver.reference(id).getName()).isEqualTo("rolled-back");
+            status.setRollbackOnly();
+        });
+
+        assertThat(categoryRepository.findIdByName("rolled-back")).isEqualTo(id);
+        assertThat(categoryResolver.resolveId("rolled-back")).isEqualTo(id);
+    }
+
+    @Test
+    void blankNameIsRejected() {
+        assertThatThrownBy(() -> categoryResolver.resolveId(" ")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.medindev.shoppingcard.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medindev.shoppingcard.dto.ProductDto;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The export is plain NDJSON: every line is exactly one serialized product followed by a newline.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-export;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ProductExportServiceTests {
+
+    @Autowired
+    private IProductExportService productExportService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void everyLineIsExactlyOneProduct() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "exported", null));
+        List<Product> products = productRepository.saveAll(List.of(
+                new Product("first", "ndjson", new BigDecimal("1.50"), 1, "d", category),
+                new Product("second", "ndjson", new BigDecimal("2.50"), 2, "d", category),
+                new Product("third", "ndjson", new BigDecimal("3.50"), 3, "d", category)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productExportService.exportProducts(null, "ndjson", out);
+
+        StringBuilder expected = new StringBuilder();
+        for (Product product : products) {
+            expected.append(objectMapper.writeValueAsString(ProductDto.from(product))).append('\n');
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+    }
+}
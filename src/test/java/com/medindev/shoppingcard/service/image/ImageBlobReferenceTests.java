@@ -0,0 +1,165 @@
+package com.medindev.shoppingcard.service.image;
+
+import com.medindev.shoppingcard.dto.ImageUploadResult;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.model.StoredBlob;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.repository.StoredBlobRepository;
+import com.medindev.shoppingcard.service.storage.BlobRef;
+import com.medindev.shoppingcard.service.storage.BlobReferenceCounter;
+import com.medindev.shoppingcard.service.storage.IBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Identical uploads share one blob, the file goes with the last reference, and an upload whose blob
+ * is purged between registration and its transaction fails on its own instead of failing the batch.
+ */
+// Derivatives are off so the only references are the originals'.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:image-blob-refs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "image.processing.enabled=false"})
+@ActiveProfiles("test")
+class ImageBlobReferenceTests {
+
+    @Autowired
+    private IImageService imageService;
+    @Autowired
+    private IBlobStore blobStore;
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoSpyBean
+    private BlobReferenceCounter blobReferenceCounter;
+
+    private Long productId;
+
+    @BeforeEach
+    void createProduct() {
+        Category category = categoryRepository.findByName("images");
+        if (category == null) {
+            category = categoryRepository.save(new Category(null, "images", null));
+        }
+        productId = productRepository.save(new Product("p", "b", BigDecimal.ONE, 1, "d", category)).getId();
+    }
+
+    @Test
+    void identicalUploadsShareOneBlobUntilTheLastReferenceIsDeleted() throws IOException {
+        byte[] content = randomContent();
+        List<ImageUploadResult> results = imageService.saveImages(List.of(file("a.png", content), file("b.png", content)),
+                productId);
+
+        assertThat(results).allMatch(ImageUploadResult::isSuccess);
+        String storageKey = storageKeyOf(content);
+        assertThat(storedBlobRepository.findById(storageKey)).get().extracting(StoredBlob::getRefCount).isEqualTo(2L);
+
+        imageService.deleteImageById(results.get(0).getImage().getImageId());
+        assertThat(storedBlobRepository.findById(storageKey)).get().extracting(StoredBlob::getRefCount).isEqualTo(1L);
+        assertThat(blobStore.exists(storageKey)).isTrue();
+
+        imageService.deleteImageById(results.get(1).getImage().getImageId());
+        assertThat(storedBlobRepository.findById(storageKey)).isEmpty();
+        assertThat(blobStore.exists(storageKey)).isFalse();
+    }
+
+    @Test
+    void blobPurgedAfterRegistrationFailsOnlyItsOwnFile() throws IOException {
+        byte[] raced = randomContent();
+        String racedKey = storageKeyOf(raced);
+        purgeRightAfterRegistering(racedKey);
+
+        List<ImageUploadResult> results = imageService.saveImages(
+                List.of(file("raced.png", raced), file("other.png", randomContent())), productId);
+
+        assertThat(results.get(0).isSuccess()).isFalse();
+        assertThat(results.get(1).isSuccess()).isTrue();
+        assertThat(storedBlobRepository.findById(racedKey)).isEmpty();
+    }
+
+    @Test
+    void blobWhoseRowWasPurgedButFileRestoredIsRegisteredAgain() throws IOException {
+        byte[] content = randomContent();
+        String key = storageKeyOf(content);
+        AtomicBoolean restored = new AtomicBoolean();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            BlobRef blob = invocation.getArgument(0);
+            if (blob.getKey().equals(key) && restored.compareAndSet(false, true)) {
+                // Purged by a concurrent release, then stored again by another upload of the same content.
+                blobReferenceCounter.purgeIfUnreferenced(key);
+                blobStore.store(new ByteArrayInputStream(content));
+            }
+            return null;
+        }).when(blobReferenceCounter).register(any());
+
+        List<ImageUploadResult> results = imageService.saveImages(List.of(file("a.png", content)), productId);
+
+        assertThat(results).allMatch(ImageUploadResult::isSuccess);
+        assertThat(storedBlobRepository.findById(key)).get().extracting(StoredBlob::getRefCount).isEqualTo(1L);
+    }
+
+    @Test
+    void acquireRegistersAPurgedRowAgainInsideTheCallersTransaction() throws IOException {
+        BlobRef blob = blobStore.store(new ByteArrayInputStream(randomContent()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            blobReferenceCounter.acquire(blob);
+            assertThat(storedBlobRepository.findById(blob.getKey())).get()
+                    .extracting(StoredBlob::getRefCount).isEqualTo(1L);
+            status.setRollbackOnly();
+        });
+
+        // A row committed on a second connection would have outlived the rollback.
+        assertThat(storedBlobRepository.findById(blob.getKey())).isEmpty();
+    }
+
+    private void purgeRightAfterRegistering(String key) {
+        AtomicBoolean purged = new AtomicBoolean();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            BlobRef blob = invocation.getArgument(0);
+            if (blob.getKey().equals(key) && purged.compareAndSet(false, true)) {
+                blobReferenceCounter.purgeIfUnreferenced(key);
+            }
+            return null;
+        }).when(blobReferenceCounter).register(any());
+    }
+
+    // The store is content-addressed, so storing the same bytes up front just yields their key.
+    private String storageKeyOf(byte[] content) throws IOException {
+        return blobStore.store(new ByteArrayInputStream(content)).getKey();
+    }
+
+    private static MockMultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("files", name, "image/png", content);
+    }
+
+    private static byte[] randomContent() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
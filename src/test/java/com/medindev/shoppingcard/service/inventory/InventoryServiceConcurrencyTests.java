@@ -0,0 +1,283 @@
+package com.medindev.shoppingcard.service.inventory;
+
+import com.medindev.shoppingcard.config.InventoryProperties;
+import com.medindev.shoppingcard.dto.ReservationDto;
+import com.medindev.shoppingcard.exception.InsufficientStockException;
+import com.medindev.shoppingcard.exception.ReservationStateException;
+import com.medindev.shoppingcard.exception.StockMismatchException;
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import com.medindev.shoppingcard.request.ProductUpdateRequest;
+import com.medindev.shoppingcard.service.product.IProductService;
+import com.medindev.shoppingcard.service.product.ProductCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many threads reserving the same product must never take more units than were in stock, also when
+ * they are spread over several hot-SKU instances sharing the database, and product edits running
+ * alongside must neither lose nor overwrite the units they take. An absolute
+ * stock only applies over the stock its writer expected.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceConcurrencyTests {
+
+    private static final int STOCK = 150;
+    private static final int THREADS = 24;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private IProductService productService;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Long productId = createProduct(STOCK);
+
+        List<ReservationDto> reserved = reserveConcurrently(productId);
+
+        assertThat(reserved).hasSize(STOCK);
+        assertThat(productRepository.findInventoryById(productId)).contains(0);
+    }
+
+    @Test
+    void hotSkuReservationsNeverOversellAndAreWrittenBack() throws Exception {
+        Long productId = createProduct(STOCK);
+        inventoryService.enableHotSku(productId);
+
+        List<ReservationDto> reserved = reserveConcurrently(productId);
+        inventoryService.release(reserved.get(0).getId());
+        inventoryService.commit(reserved.get(1).getId());
+        inventoryService.disableHotSku(productId);
+
+        assertThat(reserved).hasSize(STOCK);
+        assertThat(productRepository.findInventoryById(productId)).contains(1);
+    }
+
+    @Test
+    void hotSkuInstancesSharingOneDatabaseNeverOversellTogether() throws Exception {
+        Long productId = createProduct(STOCK);
+        List<HotSkuInventory> instances = List.of(newHotSkuInventory(), newHotSkuInventory());
+        instances.forEach(instance -> instance.enable(productId));
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(5));
+        Map<String, Integer> holders = new ConcurrentHashMap<>();
+
+        List<ReservationDto> reserved = reserveConcurrently(thread -> {
+            int instance = thread % instances.size();
+            ReservationDto reservation = instances.get(instance).reserve(productId, 1, expiresAt);
+            holders.put(reservation.getId(), instance);
+            return reservation;
+        });
+
+        assertThat(reserved).hasSize(STOCK);
+        assertThat(productRepository.findInventoryById(productId)).contains(0);
+
+        // A unit released on one instance reaches the other once it is returned to the row.
+        String releasedId = reserved.get(0).getId();
+        HotSkuInventory holder = instances.get(holders.get(releasedId));
+        HotSkuInventory other = instances.get(1 - holders.get(releasedId));
+        holder.release(releasedId);
+        assertThatThrownBy(() -> other.reserve(productId, 1, expiresAt)).isInstanceOf(InsufficientStockException.class);
+        holder.returnAll();
+        other.reserve(productId, 1, expiresAt);
+
+        instances.forEach(instance -> instance.disable(productId));
+        assertThat(productRepository.findInventoryById(productId)).contains(0);
+    }
+
+    @Test
+    void releasedAndExpiredReservationsReturnTheirStock() throws Exception {
+        Long productId = createProduct(10);
+
+        ReservationDto released = inventoryService.reserve(productId, 4, null);
+        ReservationDto committed = inventoryService.reserve(productId, 3, null);
+        ReservationDto expiring = inventoryService.reserve(productId, 2, Duration.ofSeconds(1));
+        inventoryService.release(released.getId());
+        inventoryService.commit(committed.getId());
+        assertThat(inventoryService.getAvailable(productId)).isEqualTo(5);
+
+        TimeUnit.MILLISECONDS.sleep(1_100);
+        assertThatThrownBy(() -> inventoryService.commit(expiring.getId())).isInstanceOf(ReservationStateException.class);
+        inventoryService.expireReservations();
+
+        assertThat(inventoryService.getAvailable(productId)).isEqualTo(7);
+        assertThatThrownBy(() -> inventoryService.release(released.getId())).isInstanceOf(ReservationStateException.class);
+        assertThatThrownBy(() -> inventoryService.reserve(productId, 8, null)).isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    void productEditsAndReservationsNeverOverwriteEachOthersStock() throws Exception {
+        Long productId = createProduct(STOCK);
+        Category category = productRepository.findWithDetailsById(productId).orElseThrow().getCategory();
+        int edits = 10;
+        int restock = 5;
+        ExecutorService editor = Executors.newSingleThreadExecutor();
+        Future<?> editing = editor.submit(() -> {
+            for (int i = 0; i < edits; i++) {
+                ProductUpdateRequest request = new ProductUpdateRequest();
+                request.setName("flash-sale item");
+                request.setBrand("brand");
+                request.setPrice(BigDecimal.valueOf(20 + i));
+                request.setDescription("edit " + i);
+                request.setCategory(category);
+                request.setInventoryDelta(restock);
+                productService.updateProduct(request, productId);
+            }
+            return null;
+        });
+        List<ReservationDto> reserved;
+        try {
+            reserved = reserveConcurrently(productId);
+            editing.get(60, TimeUnit.SECONDS);
+        } finally {
+            editor.shutdownNow();
+        }
+
+        assertThat(productRepository.findInventoryById(productId))
+                .contains(STOCK + edits * restock - reserved.size());
+        assertThat(productRepository.findById(productId).orElseThrow().getDescription()).isEqualTo("edit 9");
+    }
+
+    @Test
+    void adjustmentsMoveStockRelativelyInBothModes() {
+        Long productId = createProduct(10);
+
+        inventoryService.adjust(productId, 5);
+        inventoryService.adjust(productId, -12);
+        assertThatThrownBy(() -> inventoryService.adjust(productId, -4)).isInstanceOf(InsufficientStockException.class);
+        assertThat(inventoryService.getAvailable(productId)).isEqualTo(3);
+
+        inventoryService.enableHotSku(productId);
+        inventoryService.adjust(productId, 4);
+        inventoryService.adjust(productId, -2);
+        assertThatThrownBy(() -> inventoryService.adjust(productId, -6)).isInstanceOf(InsufficientStockException.class);
+        inventoryService.disableHotSku(productId);
+
+        assertThat(productRepository.findInventoryById(productId)).contains(5);
+    }
+
+    @Test
+    void absoluteStockIsSetOnlyAgainstTheExpectedStockInBothModes() {
+        Long productId = createProduct(10);
+        inventoryService.reserve(productId, 4, null);
+
+        assertThatThrownBy(() -> inventoryService.set(productId, 10, 50)).isInstanceOf(StockMismatchException.class);
+        inventoryService.set(productId, 6, 50);
+        assertThat(inventoryService.getAvailable(productId)).isEqualTo(50);
+
+        inventoryService.enableHotSku(productId);
+        inventoryService.reserve(productId, 5, null);
+        assertThatThrownBy(() -> inventoryService.set(productId, 50, 20)).isInstanceOf(StockMismatchException.class);
+        inventoryService.set(productId, 45, 20);
+        inventoryService.reserve(productId, 20, null);
+        assertThatThrownBy(() -> inventoryService.reserve(productId, 1, null)).isInstanceOf(InsufficientStockException.class);
+        inventoryService.disableHotSku(productId);
+
+        assertThat(productRepository.findInventoryById(productId)).contains(0);
+    }
+
+    @Test
+    void productEditWithAnAbsoluteStockButNoExpectedStockIsRejected() {
+        Long productId = createProduct(10);
+        ProductUpdateRequest request = new ProductUpdateRequest();
+        request.setName("flash-sale item");
+        request.setBrand("brand");
+        request.setPrice(BigDecimal.TEN);
+        request.setCategory(productRepository.findWithDetailsById(productId).orElseThrow().getCategory());
+        request.setInventory(50);
+
+        assertThatThrownBy(() -> productService.updateProduct(request, productId))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(productRepository.findInventoryById(productId)).contains(10);
+
+        request.setExpectedInventory(10);
+        productService.updateProduct(request, productId);
+        assertThat(productRepository.findInventoryById(productId)).contains(50);
+    }
+
+    private List<ReservationDto> reserveConcurrently(Long productId) throws Exception {
+        return reserveConcurrently(thread -> inventoryService.reserve(productId, 1, null));
+    }
+
+    /** Runs every thread's attempts at once; {@code reserve} gets the thread's index. */
+    private List<ReservationDto> reserveConcurrently(IntFunction<ReservationDto> reserve) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<ReservationDto> reserved = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            reserved.add(reserve.apply(thread));
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(reserved.size() + rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+        return new ArrayList<>(reserved);
+    }
+
+    // A second application instance's hot-SKU state, over the same database.
+    private HotSkuInventory newHotSkuInventory() {
+        return new HotSkuInventory(productRepository, transactionTemplate, productCache, inventoryProperties);
+    }
+
+    private Long createProduct(int stock) {
+        Category category = categoryRepository.save(new Category(null, "inventory-" + UUID.randomUUID(), null));
+        return productRepository.save(new Product("flash-sale item", "brand", BigDecimal.TEN, stock, "d", category))
+                .getId();
+    }
+}
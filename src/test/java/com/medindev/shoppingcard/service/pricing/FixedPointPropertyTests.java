@@ -0,0 +1,121 @@
+package com.medindev.shoppingcard.service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the fixed-point engine against the same computation in {@code BigDecimal} over a large
+ * generated corpus. The seed is fixed so a failure reproduces; the failing inputs are in the message.
+ */
+class FixedPointPropertyTests {
+
+    private static final long SEED = 0x5EED_CA57L;
+    private static final int CASES = 200_000;
+    private static final RoundingMode[] MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+
+    private final Random random = new Random(SEED);
+
+    @Test
+    void divideMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            long dividend = amount();
+            long divisor = 1 + (random.nextBoolean() ? random.nextInt(1_000) : Math.abs(random.nextLong() >>> 1));
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+            long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+            assertThat(FixedPoint.divide(dividend, divisor, mode))
+                    .as("%d / %d %s", dividend, divisor, mode)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void applyRateMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            long amount = amount();
+            long rate = random.nextInt(2_000_001);
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+            long expected = BigDecimal.valueOf(amount, 2).multiply(BigDecimal.valueOf(rate, FixedPoint.RATE_DIGITS))
+                    .setScale(2, mode).unscaledValue().longValueExact();
+            assertThat(FixedPoint.applyRate(amount, rate, mode))
+                    .as("%d * %d %s", amount, rate, mode)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void conversionsRoundTrip() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong() >> 20, random.nextInt(6));
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+            long fixed = FixedPoint.toFixed(value, 2, mode);
+            assertThat(FixedPoint.toDecimal(fixed, 2)).isEqualTo(value.setScale(2, mode));
+        }
+        assertThatThrownBy(() -> FixedPoint.toFixed(new BigDecimal("1e30"), 2, RoundingMode.HALF_EVEN))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.toRate(new BigDecimal("0.1234567")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchPricingMatchesBigDecimal() {
+        for (int i = 0; i < 20_000; i++) {
+            int count = 1 + random.nextInt(40);
+            long[] unitPrices = new long[count];
+            int[] quantities = new int[count];
+            for (int j = 0; j < count; j++) {
+                unitPrices[j] = random.nextInt(10) == 0 ? random.nextLong(1L << 40) : random.nextInt(100_000);
+                quantities[j] = 1 + random.nextInt(999);
+            }
+            long discountRate = random.nextBoolean() ? 0 : random.nextInt(1_000_001);
+            long taxRate = random.nextInt(300_001);
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+            long[] lineNets = new long[count];
+
+            PriceTotals totals = new PricingEngine(mode).price(unitPrices, quantities, count, discountRate, taxRate, lineNets);
+
+            BigDecimal discountDecimal = BigDecimal.valueOf(discountRate, FixedPoint.RATE_DIGITS);
+            BigDecimal subtotal = BigDecimal.ZERO;
+            BigDecimal discount = BigDecimal.ZERO;
+            for (int j = 0; j < count; j++) {
+                BigDecimal line = BigDecimal.valueOf(unitPrices[j], 2).multiply(BigDecimal.valueOf(quantities[j]));
+                BigDecimal lineDiscount = line.multiply(discountDecimal).setScale(2, mode);
+                subtotal = subtotal.add(line);
+                discount = discount.add(lineDiscount);
+                assertThat(BigDecimal.valueOf(lineNets[j], 2)).isEqualByComparingTo(line.subtract(lineDiscount));
+            }
+            BigDecimal net = subtotal.subtract(discount);
+            BigDecimal tax = net.multiply(BigDecimal.valueOf(taxRate, FixedPoint.RATE_DIGITS)).setScale(2, mode);
+
+            assertThat(BigDecimal.valueOf(totals.subtotal(), 2)).isEqualByComparingTo(subtotal);
+            assertThat(BigDecimal.valueOf(totals.discount(), 2)).isEqualByComparingTo(discount);
+            assertThat(BigDecimal.valueOf(totals.tax(), 2)).isEqualByComparingTo(tax);
+            assertThat(BigDecimal.valueOf(totals.total(), 2)).isEqualByComparingTo(net.add(tax));
+        }
+    }
+
+    @Test
+    void overflowIsReportedNotWrapped() {
+        PricingEngine engine = new PricingEngine(RoundingMode.HALF_EVEN);
+        assertThatThrownBy(() -> engine.lineTotal(Long.MAX_VALUE / 2, 3)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> engine.price(new long[]{Long.MAX_VALUE / 2, Long.MAX_VALUE / 2}, new int[]{1, 2}, 2, 0, 0, null))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    /** Mostly everyday amounts, with some near the overflow boundary of {@code amount * rate}. */
+    private long amount() {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(20_001) - 10_000;
+            case 1 -> random.nextLong() >> 24;
+            case 2 -> random.nextLong() >> 40;
+            default -> random.nextLong() >> 1;
+        };
+    }
+}
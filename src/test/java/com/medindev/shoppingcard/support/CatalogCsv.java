@@ -0,0 +1,62 @@
+package com.medindev.shoppingcard.support;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A deterministic product catalog in the bulk import CSV format, generated on the fly so a
+ * million-row catalog never sits in memory as text. Row {@code i} is named {@code Product i}, has brand
+ * {@code brand-(i % brands)} and category {@code category-(i % categories)}.
+ */
+public final class CatalogCsv extends InputStream {
+
+    private final int rows;
+    private final int brands;
+    private final int categories;
+    private int next;
+    private byte[] buffer = "name,brand,price,inventory,description,category\n".getBytes(StandardCharsets.UTF_8);
+    private int position;
+
+    public CatalogCsv(int rows, int brands, int categories) {
+        this.rows = rows;
+        this.brands = brands;
+        this.categories = categories;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean fill() {
+        if (position < buffer.length) {
+            return true;
+        }
+        if (next == rows) {
+            return false;
+        }
+        int i = next++;
+        String row = "Product " + i + ",brand-" + (i % brands) + "," + (1 + i % 500) + "." + (i % 100)
+                + "," + (i % 1000) + ",Seeded product number " + i + ",category-" + (i % categories) + "\n";
+        buffer = row.getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        return true;
+    }
+}
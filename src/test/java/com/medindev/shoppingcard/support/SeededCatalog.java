@@ -0,0 +1,66 @@
+package com.medindev.shoppingcard.support;
+
+import com.medindev.shoppingcard.model.Category;
+import com.medindev.shoppingcard.model.Image;
+import com.medindev.shoppingcard.model.Product;
+import com.medindev.shoppingcard.repository.CategoryRepository;
+import com.medindev.shoppingcard.repository.ImageRepository;
+import com.medindev.shoppingcard.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The catalog the read tests measure: {@value #CATEGORIES} categories of {@value #PRODUCTS_PER_CATEGORY}
+ * products, each with {@value #IMAGES_PER_PRODUCT} images. Products are named {@code product-p} with brand
+ * {@code brand-(p % 2)} in category {@code category-c}.
+ * <p>
+ * Seeded once when the application context starts, so a test that imports it should also give
+ * itself a database of its own.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class SeededCatalog {
+
+    public static final int CATEGORIES = 3;
+    public static final int PRODUCTS_PER_CATEGORY = 40;
+    public static final int IMAGES_PER_PRODUCT = 3;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ImageRepository imageRepository;
+
+    /** The first product of {@code category-0}. */
+    @Getter
+    private Long productId;
+    @Getter
+    private Long categoryId;
+
+    @PostConstruct
+    void seed() {
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = categoryRepository.save(new Category(null, "category-" + c, null));
+            for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+                products.add(new Product("product-" + p, "brand-" + (p % 2), BigDecimal.valueOf(p + 1), 10,
+                        "description", category));
+            }
+        }
+        productRepository.saveAll(products);
+        List<Image> images = new ArrayList<>();
+        for (Product product : products) {
+            for (int i = 0; i < IMAGES_PER_PRODUCT; i++) {
+                images.add(new Image(null, "image-" + i, "image-" + i + ".png", "image/png",
+                        "0".repeat(63) + i, 100, null, null, product));
+            }
+        }
+        imageRepository.saveAll(images);
+        productId = products.get(0).getId();
+        categoryId = products.get(0).getCategory().getId();
+    }
+}